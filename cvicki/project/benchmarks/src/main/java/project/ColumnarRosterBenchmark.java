@@ -0,0 +1,116 @@
+package project;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Whole-roster scans over Student objects against the same scans over columns.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ColumnarRosterBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    @Param({"false", "true"})
+    public boolean offHeap;
+
+    private StudentDatabase db;
+    private ColumnarRoster columns;
+    private int[] ids;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        db = new StudentDatabase("columnar-bench", new MemoryStorage());
+        ids = Rosters.populate(db, size, 42);
+        Rosters.shuffle(ids, 7);
+        columns = new ColumnarRoster(offHeap);
+        db.forEachStudent(columns::add);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        db.close();
+    }
+
+    private static StudentQuery prefixQuery() {
+        return new StudentQuery().lastNamePrefix("last123").bornBetween(1960, 1999);
+    }
+
+    @Benchmark
+    public double averageOfAveragesObjects() {
+        double[] total = new double[2];
+        db.forEachStudent(student -> {
+            if (student.getGroup() == StudentGroup.TELECOM && student.getGradeCount() > 0) {
+                total[0] += student.getAverageGrade();
+                total[1]++;
+            }
+        });
+        return total[1] == 0 ? 0.0 : total[0] / total[1];
+    }
+
+    @Benchmark
+    public double averageOfAveragesColumns() {
+        return columns.averageOfAverages(StudentGroup.TELECOM);
+    }
+
+    @Benchmark
+    public long queryScanObjects() {
+        StudentQuery query = prefixQuery();
+        long[] count = new long[1];
+        db.forEachStudent(student -> {
+            if (query.matches(student)) count[0]++;
+        });
+        return count[0];
+    }
+
+    @Benchmark
+    public int queryScanColumns() {
+        return columns.select(prefixQuery()).length;
+    }
+
+    @Benchmark
+    public long[] gradeCountsObjects() {
+        long[] counts = new long[GradeDistribution.MAX_GRADE + 1];
+        db.forEachStudent(student -> {
+            if (student.getGroup() != StudentGroup.TELECOM) return;
+            for (int grade : student.getGrades()) counts[grade]++;
+        });
+        return counts;
+    }
+
+    @Benchmark
+    public long[] gradeCountsColumns() {
+        return columns.gradeCounts(StudentGroup.TELECOM);
+    }
+
+    @Benchmark
+    public int[] topTenColumns() {
+        return columns.sorted(StudentGroup.TELECOM, StudentOrder.AVERAGE, true, 0, 10);
+    }
+
+    // The price of handing a row out as a Student.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Student studentView() {
+        int id = ids[cursor];
+        cursor = cursor + 1 == ids.length ? 0 : cursor + 1;
+        return columns.student(columns.rowOf(id), null);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class ConcurrentRosterBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Path file;
+    private StudentDatabase db;
+    private int[] ids;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        ids = Rosters.populate(db, size, 42);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    private int randomId() {
+        return ids[ThreadLocalRandom.current().nextInt(ids.length)];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Student findStudent4Threads() {
+        return db.findStudent(randomId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Student mixedFind() {
+        return db.findStudent(randomId());
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public void mixedAddAndRemove() {
+        Student student = Rosters.newStudent(ThreadLocalRandom.current(), 0);
+        db.addStudent(student);
+        db.removeStudent(student.getId());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package project;
+
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Scores are hashes per second.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class HashBenchmark {
+    private static final int BATCH = 100_000;
+
+    private Path file;
+    private StudentDatabase db;
+    private CyberSecurityStudent student;
+    private List<CyberSecurityStudent> roster;
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        // every other generated student is CyberSecurity
+        Rosters.populate(db, 2 * BATCH, 42);
+        roster = db.getAllStudents().stream()
+            .filter(s -> s instanceof CyberSecurityStudent)
+            .map(s -> (CyberSecurityStudent) s)
+            .toList();
+        student = new CyberSecurityStudent(20001, "Grace", "Hopper", 1990);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    @Benchmark
+    public String legacyGetInstanceAndFormat() throws NoSuchAlgorithmException {
+        return legacyHash(nextStudent());
+    }
+
+    @Benchmark
+    public String threadLocalDigestHexTable() {
+        Student s = nextStudent();
+        return NameHasher.sha256Hex(s.getFirstName() + s.getLastName());
+    }
+
+    @Benchmark
+    public String cachedPerStudent() {
+        return student.getNameHash();
+    }
+
+    @State(Scope.Benchmark)
+    public static class FreshBatch {
+        List<CyberSecurityStudent> students;
+
+        // new objects each call, so the batch measures hashing rather than cache hits
+        @Setup(Level.Invocation)
+        public void setUp(HashBenchmark benchmark) {
+            students = benchmark.roster.stream()
+                .map(s -> new CyberSecurityStudent(s.getId(), s.getFirstName(), s.getLastName(), s.getBirthYear()))
+                .toList();
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Map<Integer, String> parallelGroupBatch(FreshBatch batch) {
+        return NameHasher.hashCyberStudents(batch.students);
+    }
+
+    private Student nextStudent() {
+        Student s = roster.get(cursor);
+        cursor = cursor + 1 == roster.size() ? 0 : cursor + 1;
+        return s;
+    }
+
+    // CyberSecurityStudent.performSkill as it was before NameHasher
+    private static String legacyHash(Student s) throws NoSuchAlgorithmException {
+        MessageDigest md = MessageDigest.getInstance("SHA-256");
+        byte[] hash = md.digest((s.getFirstName() + s.getLastName()).getBytes());
+        StringBuilder hexString = new StringBuilder();
+        for (byte b : hash) {
+            hexString.append(String.format("%02x", b));
+        }
+        return hexString.toString();
+    }
+}
\ No newline at end of file
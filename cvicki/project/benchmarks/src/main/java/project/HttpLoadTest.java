@@ -0,0 +1,126 @@
+package project;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Closed-loop load test for StudentHttpServer: 80% GET /students/{id}, 20% grade POSTs.
+// Starts the server in-process on a populated temp database unless a base URL is given.
+//   java -cp benchmarks.jar project.HttpLoadTest [students] [clients] [seconds] [baseUrl]
+public final class HttpLoadTest {
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int students = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+        String baseUrl = args.length > 3 ? args[3] : null;
+
+        Path file = null;
+        StudentDatabase db = null;
+        StudentHttpServer server = null;
+        int[] ids;
+        if (baseUrl == null) {
+            file = Rosters.tempDatabase();
+            db = Rosters.open(file, false);
+            ids = Rosters.populate(db, students, 42);
+            server = new StudentHttpServer(db, 0);
+            server.start();
+            baseUrl = "http://localhost:" + server.getPort();
+        } else {
+            // ids of a remote roster are unknown; probe the usual ranges
+            ids = new int[students];
+            for (int i = 0; i < students; i++) {
+                ids[i] = (i % 2 == 0 ? 10000 : 20000) + i / 2 + 1;
+            }
+        }
+
+        HttpClient client = HttpClient.newBuilder()
+                .executor(StudentHttpServer.newRequestExecutor())
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        long deadline = System.nanoTime() + seconds * 1_000_000_000L;
+        String target = baseUrl;
+
+        ExecutorService workers = StudentHttpServer.newRequestExecutor();
+        Future<?>[] results = new Future<?>[clients];
+        for (int c = 0; c < clients; c++) {
+            results[c] = workers.submit(() -> run(client, target, ids, deadline));
+        }
+        long[][] samples = new long[clients][];
+        long errors = 0;
+        for (int c = 0; c < clients; c++) {
+            Worker worker = (Worker) results[c].get();
+            samples[c] = Arrays.copyOf(worker.latencies, worker.count);
+            errors += worker.errors;
+        }
+        workers.shutdown();
+
+        long[] all = Arrays.stream(samples).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d clients, %d s against %s%n", clients, seconds, target);
+        System.out.printf("requests: %d (%d errors), %.0f req/s%n", all.length, errors, all.length / (double) seconds);
+        if (all.length > 0) {
+            System.out.printf("latency p50 %.3f ms, p99 %.3f ms, max %.3f ms%n",
+                    percentile(all, 0.50) / 1e6, percentile(all, 0.99) / 1e6, all[all.length - 1] / 1e6);
+        }
+
+        if (server != null) {
+            server.stop();
+            db.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    private static final class Worker {
+        long[] latencies = new long[1 << 14];
+        int count;
+        long errors;
+
+        void record(long nanos) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+        }
+    }
+
+    private static Worker run(HttpClient client, String baseUrl, int[] ids, long deadline) {
+        Worker worker = new Worker();
+        Random random = ThreadLocalRandom.current();
+        while (System.nanoTime() < deadline) {
+            int id = ids[random.nextInt(ids.length)];
+            HttpRequest request = random.nextInt(5) == 0
+                    ? HttpRequest.newBuilder(URI.create(baseUrl + "/students/" + id + "/grades"))
+                        .POST(HttpRequest.BodyPublishers.ofString("{\"grades\":[" + (1 + random.nextInt(5)) + "]}"))
+                        .build()
+                    : HttpRequest.newBuilder(URI.create(baseUrl + "/students/" + id)).GET().build();
+            long start = System.nanoTime();
+            try {
+                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                worker.record(System.nanoTime() - start);
+                if (response.statusCode() >= 400) {
+                    worker.errors++;
+                }
+            } catch (Exception e) {
+                worker.errors++;
+            }
+        }
+        return worker;
+    }
+
+    private static long percentile(long[] sorted, double p) {
+        int index = (int) Math.ceil(p * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))];
+    }
+}
\ No newline at end of file
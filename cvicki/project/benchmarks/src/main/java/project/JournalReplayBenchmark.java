@@ -0,0 +1,137 @@
+package project;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// How fast a journal is read back, in events per second, and what recording
+// a change in it costs the caller.
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class JournalReplayBenchmark {
+    static final int ADDS = 400_000;
+    static final int GRADES = 500_000;
+    static final int REMOVES = 100_000;
+    static final int EVENTS = ADDS + GRADES + REMOVES;
+
+    // A journal of EVENTS changes written by a journaled database.
+    @State(Scope.Benchmark)
+    public static class Written {
+        Path file;
+        Path journal;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            file = Rosters.tempDatabase();
+            journal = MutationLog.pathFor(file.toString());
+            StudentDatabase db = new StudentDatabase(file.toString(), new SqliteStorage(file.toString(), false, false), true);
+            int[] ids = Rosters.populate(db, ADDS, 42);
+            Random random = new Random(7);
+            for (int i = 0; i < GRADES; i++) {
+                db.findStudent(ids[random.nextInt(ids.length)]).addGrade(1 + random.nextInt(5));
+            }
+            Rosters.shuffle(ids, 11);
+            for (int i = 0; i < REMOVES; i++) {
+                db.removeStudent(ids[i]);
+            }
+            db.close();
+            System.out.println("\njournal: " + Files.size(journal) / 1024 + " KB for " + EVENTS + " events");
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    // Reading and checking records alone.
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(EVENTS)
+    public long decode(Written written) throws Exception {
+        long[] seen = new long[1];
+        MutationLog.replay(written.journal, Long.MAX_VALUE, new MutationLog.Visitor() {
+            @Override
+            public void added(long sequence, long time, Student student) {
+                seen[0] += student.getId();
+            }
+
+            @Override
+            public void gradeAdded(long sequence, long time, int id, int index, int grade) {
+                seen[0] += grade;
+            }
+
+            @Override
+            public void removed(long sequence, long time, int id) {
+                seen[0] -= id;
+            }
+        });
+        return seen[0];
+    }
+
+    // Rebuilding an in-memory roster, indexes and statistics included.
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @OperationsPerInvocation(EVENTS)
+    public StudentDatabase rebuild(Written written) throws Exception {
+        StudentDatabase db = new StudentDatabase("replay", new MemoryStorage());
+        db.rebuildFrom(written.journal, Long.MAX_VALUE);
+        return db;
+    }
+
+    @State(Scope.Thread)
+    public static class Appending {
+        @Param({"false", "true"})
+        public boolean journaled;
+
+        Path file;
+        StudentDatabase db;
+        Student[] students;
+        Random random = new Random(3);
+
+        @Setup(Level.Iteration)
+        public void setUp() throws Exception {
+            file = Rosters.tempDatabase();
+            db = new StudentDatabase(file.toString(), new SqliteStorage(file.toString(), false, false), journaled);
+            int[] ids = Rosters.populate(db, 10_000, 42);
+            students = new Student[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                students[i] = db.findStudent(ids[i]);
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws Exception {
+            db.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    // A grade added in memory, with and without its journal record; the
+    // fsync happens on the journal's own thread.
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void addGrade(Appending state) {
+        state.students[state.random.nextInt(state.students.length)].addGrade(1 + state.random.nextInt(5));
+    }
+}
\ No newline at end of file
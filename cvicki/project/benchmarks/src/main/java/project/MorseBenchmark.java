@@ -0,0 +1,100 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class MorseBenchmark {
+    @Param({"100000"})
+    public int size;
+
+    private Path file;
+    private StudentDatabase db;
+    private List<String> names;
+    private final String name = "Grace Hopper-Graded";
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        Rosters.populate(db, size, 42);
+        names = db.getAllStudents().stream().map(s -> s.getFirstName() + " " + s.getLastName()).toList();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    @Benchmark
+    public String encodeHashMapPerCall() {
+        return legacyToMorse(name);
+    }
+
+    @Benchmark
+    public String encodeLookupTable() {
+        return MorseEncoder.encode(name);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<String> encodeAllSequentialLegacy() {
+        return names.stream().map(MorseBenchmark::legacyToMorse).toList();
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<String> encodeAllParallel() {
+        return MorseEncoder.encodeAll(names.stream());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Map<Integer, String> encodeTelecomStudents() {
+        return MorseEncoder.encodeTelecomStudents(db);
+    }
+
+    // TelecomStudent.toMorse as it was before the lookup table
+    private static String legacyToMorse(String text) {
+        Map<Character, String> morseCode = new HashMap<>();
+        morseCode.put('A', ".-"); morseCode.put('B', "-..."); morseCode.put('C', "-.-.");
+        morseCode.put('D', "-.."); morseCode.put('E', "."); morseCode.put('F', "..-.");
+        morseCode.put('G', "--."); morseCode.put('H', "...."); morseCode.put('I', "..");
+        morseCode.put('J', ".---"); morseCode.put('K', "-.-"); morseCode.put('L', ".-..");
+        morseCode.put('M', "--"); morseCode.put('N', "-."); morseCode.put('O', "---");
+        morseCode.put('P', ".--."); morseCode.put('Q', "--.-"); morseCode.put('R', ".-.");
+        morseCode.put('S', "..."); morseCode.put('T', "-"); morseCode.put('U', "..-");
+        morseCode.put('V', "...-"); morseCode.put('W', ".--"); morseCode.put('X', "-..-");
+        morseCode.put('Y', "-.--"); morseCode.put('Z', "--..");
+        morseCode.put(' ', "/");
+
+        StringBuilder morse = new StringBuilder();
+        for (char c : text.toUpperCase().toCharArray()) {
+            morse.append(morseCode.getOrDefault(c, "")).append(" ");
+        }
+        return morse.toString();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,119 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class PersistenceBenchmark {
+
+    // A roster that has never been saved: saveData writes every row.
+    @State(Scope.Thread)
+    public static class Unsaved {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Param({"sqlite", "sqlite-snapshot", "log", "memory"})
+        public String storage;
+
+        Path file;
+        StudentDatabase db;
+
+        @Setup(Level.Invocation)
+        public void setUp() throws Exception {
+            file = Rosters.tempDatabase();
+            db = Rosters.open(file, storage, false);
+            Rosters.populate(db, size, 42);
+        }
+
+        @TearDown(Level.Invocation)
+        public void tearDown() throws Exception {
+            db.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    // A roster already on disk, reopened or touched by each invocation.
+    @State(Scope.Thread)
+    public static class Saved {
+        @Param({"1000", "100000", "1000000"})
+        public int size;
+
+        @Param({"sqlite", "sqlite-snapshot", "log", "memory"})
+        public String storage;
+
+        Path file;
+        StudentDatabase db;
+        int[] ids;
+        int cursor;
+
+        @Setup(Level.Trial)
+        public void setUp() throws Exception {
+            file = Rosters.tempDatabase();
+            db = Rosters.open(file, storage, false);
+            ids = Rosters.populate(db, size, 42);
+            Rosters.shuffle(ids, 7);
+            db.saveData();
+            if (storage.equals("sqlite-snapshot")) {
+                // closing a fully saved roster leaves the snapshot behind
+                db.close();
+                db = Rosters.open(file, storage, false);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            db.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    @Benchmark
+    public void saveData(Unsaved state) {
+        state.db.saveData();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 3, time = 1)
+    @Measurement(iterations = 5, time = 1)
+    public void saveDataOneGrade(Saved state) {
+        int id = state.ids[state.cursor++ % state.ids.length];
+        state.db.findStudent(id).addGrade(3);
+        state.db.saveData();
+    }
+
+    @Benchmark
+    public int loadData(Saved state) throws Exception {
+        StudentDatabase db = Rosters.open(state.file, state.storage, false);
+        int count = db.getGroupCount("Telecom") + db.getGroupCount("CyberSecurity");
+        db.close();
+        return count;
+    }
+
+    @Benchmark
+    public int loadDataLazy(Saved state) throws Exception {
+        StudentDatabase db = Rosters.open(state.file, state.storage, true);
+        int count = db.getGroupCount("Telecom") + db.getGroupCount("CyberSecurity");
+        db.close();
+        return count;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,79 @@
+package project;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Output goes to discarding sinks, so the scores are formatting cost only.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RenderBenchmark {
+    @Param({"100000", "1000000"})
+    public int size;
+
+    private Path file;
+    private StudentDatabase db;
+    private List<Student> telecom;
+    private PrintStream printfSink;
+    private RosterRenderer renderer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        Rosters.populate(db, size, 42);
+        telecom = db.getStudentsSorted(StudentGroup.TELECOM, StudentOrder.ID, false);
+        printfSink = new PrintStream(OutputStream.nullOutputStream(), true);
+        renderer = new RosterRenderer(Writer.nullWriter());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    // printStudents as it was: one auto-flushing printf per row
+    @Benchmark
+    public PrintStream printfEveryRow() {
+        for (Student s : telecom) {
+            printfSink.printf("%06d: %s %s (%d) - %.2f\n",
+                s.getId(), s.getFirstName(), s.getLastName(),
+                s.getBirthYear(), s.getAverageGrade());
+        }
+        return printfSink;
+    }
+
+    @Benchmark
+    public RosterRenderer renderEveryRow() {
+        renderer.rows(telecom);
+        renderer.flush();
+        return renderer;
+    }
+
+    @Benchmark
+    public int renderFirstPage() {
+        return renderer.page(db, StudentGroup.TELECOM, StudentOrder.AVERAGE, true, 1, 25);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Each iteration starts from a fresh roster of the given size and then applies
+// BATCH mutations, so the score is the time for one batch of adds or removes.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, batchSize = RosterMutationBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = RosterMutationBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RosterMutationBenchmark {
+    static final int BATCH = 1000;
+
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path file;
+    private StudentDatabase db;
+    private int[] ids;
+    private int cursor;
+    private Random random;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        ids = Rosters.populate(db, size, 42);
+        Rosters.shuffle(ids, 7);
+        cursor = 0;
+        random = new Random(11);
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    @Benchmark
+    public void addStudent() {
+        db.addStudent(Rosters.newStudent(random, cursor++));
+    }
+
+    @Benchmark
+    public boolean removeStudent() {
+        return db.removeStudent(ids[cursor++ % ids.length]);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,159 @@
+package project;
+
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class RosterQueryBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    public int size;
+
+    private Path file;
+    private StudentDatabase db;
+    private StudentDatabase lazyDb;
+    private List<Student> scanBaseline;
+    private int[] ids;
+    private int cursor;
+    private Student graded;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        file = Rosters.tempDatabase();
+        db = Rosters.open(file, false);
+        ids = Rosters.populate(db, size, 42);
+        Rosters.shuffle(ids, 7);
+        scanBaseline = db.getAllStudents();
+        db.saveData();
+        lazyDb = Rosters.open(file, true);
+
+        graded = new TelecomStudent(0, "Grace", "Graded", 2000);
+        for (int i = 0; i < 12; i++) {
+            graded.addGrade(1 + i % 5);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception {
+        lazyDb.close();
+        db.close();
+        Rosters.deleteDatabase(file);
+    }
+
+    private int nextId() {
+        int id = ids[cursor];
+        cursor = cursor + 1 == ids.length ? 0 : cursor + 1;
+        return id;
+    }
+
+    @Benchmark
+    public Student findStudent() {
+        return db.findStudent(nextId());
+    }
+
+    // The pre-index lookup, kept as a baseline for findStudent.
+    @Benchmark
+    public Student findStudentLinearScan() {
+        int id = nextId();
+        return scanBaseline.stream().filter(s -> s.getId() == id).findFirst().orElse(null);
+    }
+
+    @Benchmark
+    public double getAverageGrade() {
+        return graded.getAverageGrade();
+    }
+
+    @Benchmark
+    public double getGroupAverage() {
+        return db.getGroupAverage("Telecom");
+    }
+
+    @Benchmark
+    public int getGroupCount() {
+        return db.getGroupCount("CyberSecurity");
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> printStudentsSortByLastName() {
+        List<Student> students = db.getAllStudents();
+        students.sort(Comparator.comparing(Student::getLastName));
+        return students;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> printStudentsSortByAverage() {
+        List<Student> students = db.getAllStudents();
+        students.sort(Comparator.comparingDouble(Student::getAverageGrade).reversed());
+        return students;
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> sortedIndexByLastName() {
+        return db.getStudentsSorted(StudentGroup.TELECOM, StudentOrder.LAST_NAME, false);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> sortedIndexByAverage() {
+        return db.getStudentsSorted(StudentGroup.TELECOM, StudentOrder.AVERAGE, true);
+    }
+
+    @Benchmark
+    public List<Student> topTenByAverage() {
+        return db.getTopByAverage(StudentGroup.CYBER_SECURITY, 10);
+    }
+
+    private static StudentQuery prefixQuery() {
+        return new StudentQuery().lastNamePrefix("last123").bornBetween(1960, 1999);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> queryLastNamePrefix() {
+        return db.query(prefixQuery());
+    }
+
+    // The same filter over the whole roster, as a baseline for the trie.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> queryLastNamePrefixScan() {
+        StudentQuery query = prefixQuery();
+        return db.getAllStudents().stream().filter(query::matches).toList();
+    }
+
+    // Lazy roster: the filter runs as a WHERE clause in SQLite.
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> queryLastNamePrefixLazy() {
+        return lazyDb.query(prefixQuery());
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Student> queryBornBetweenWithAverage() {
+        return db.query(new StudentQuery().group(StudentGroup.TELECOM).bornBetween(1990, 1991).averageAtLeast(4.5));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,76 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+final class Rosters {
+    private Rosters() {
+    }
+
+    static Path tempDatabase() throws IOException {
+        Path file = Files.createTempFile("roster-bench", ".db");
+        Files.delete(file);
+        return file;
+    }
+
+    // The configured engine, without the journal the plain constructors add, so
+    // the numbers stay comparable with those taken before there was one.
+    static StudentDatabase open(Path file, boolean lazy) {
+        String path = file.toString();
+        return new StudentDatabase(path, StorageEngine.open(StorageEngine.configured(), path, lazy));
+    }
+
+    // "sqlite" is plain SQLite; "sqlite-snapshot" also keeps the startup snapshot.
+    static StudentDatabase open(Path file, String storage, boolean lazy) throws IOException {
+        String path = file.toString();
+        return new StudentDatabase(path, switch (storage) {
+            case "sqlite" -> new SqliteStorage(path, lazy, false);
+            case "sqlite-snapshot" -> new SqliteStorage(path, lazy, true);
+            default -> StorageEngine.open(storage, path, lazy);
+        });
+    }
+
+    static void deleteDatabase(Path file) throws IOException {
+        Files.deleteIfExists(file);
+        Files.deleteIfExists(Path.of(file + "-wal"));
+        Files.deleteIfExists(Path.of(file + "-shm"));
+        Files.deleteIfExists(RosterSnapshot.pathFor(file.toString()));
+        for (Path journal : MutationLog.segments(MutationLog.pathFor(file.toString()))) {
+            Files.deleteIfExists(journal);
+        }
+    }
+
+    static Student newStudent(Random random, int i) {
+        Student student = i % 2 == 0
+                ? new TelecomStudent(0, "First" + i, "Last" + random.nextInt(1_000_000), 1950 + random.nextInt(70))
+                : new CyberSecurityStudent(0, "First" + i, "Last" + random.nextInt(1_000_000), 1950 + random.nextInt(70));
+        int grades = random.nextInt(8);
+        for (int g = 0; g < grades; g++) {
+            student.appendGrade(1 + random.nextInt(5));
+        }
+        return student;
+    }
+
+    static int[] populate(StudentDatabase db, int size, long seed) {
+        Random random = new Random(seed);
+        int[] ids = new int[size];
+        for (int i = 0; i < size; i++) {
+            Student student = newStudent(random, i);
+            db.addStudent(student);
+            ids[i] = student.getId();
+        }
+        return ids;
+    }
+
+    static void shuffle(int[] ids, long seed) {
+        Random random = new Random(seed);
+        for (int i = ids.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int tmp = ids[i];
+            ids[i] = ids[j];
+            ids[j] = tmp;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,129 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Checks ColumnarRoster against a plain map under enough churn that removals
+// move the last row into the freed one many times over and the grade heap is
+// compacted; every row is compared every CHECK_EVERY steps.
+// Then the columnar engine is compared with the in-memory roster through
+// RosterEquivalence. Exits non-zero on the first difference.
+// Run by mvn test here; by hand: mvn test-compile exec:exec@columnar-check
+public final class ColumnarRosterCheck {
+    private static final int CHECK_EVERY = 50_000;
+
+    private record Expected(StudentGroup group, String firstName, String lastName, int birthYear, List<Integer> grades) {
+    }
+
+    private ColumnarRosterCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int steps = args.length > 0 ? Integer.parseInt(args[0]) : 400_000;
+        for (boolean offHeap : new boolean[] {false, true}) {
+            check(offHeap, steps, 3);
+        }
+        RosterEquivalence.check("columnar", 9);
+        System.out.println("columnar: same as memory");
+        System.exit(0);
+    }
+
+    private static void check(boolean offHeap, int steps, long seed) {
+        ColumnarRoster roster = new ColumnarRoster(offHeap);
+        Map<Integer, Expected> model = new HashMap<>();
+        Random random = new Random(seed);
+        int nextId = 0;
+        int shrinks = 0;
+        long footprint = roster.footprint();
+        for (int step = 1; step <= steps; step++) {
+            int op = random.nextInt(10);
+            if (op < 3 || model.isEmpty()) {
+                Student student = random.nextBoolean()
+                    ? new TelecomStudent(nextId++, "F" + random.nextInt(100), "L" + random.nextInt(100), 1950 + random.nextInt(60))
+                    : new CyberSecurityStudent(nextId++, "F" + random.nextInt(100), "L" + random.nextInt(100), 1950 + random.nextInt(60));
+                List<Integer> grades = new ArrayList<>();
+                for (int g = random.nextInt(6); g > 0; g--) {
+                    int grade = 1 + random.nextInt(5);
+                    student.appendGrade(grade);
+                    grades.add(grade);
+                }
+                roster.add(student);
+                model.put(student.getId(), new Expected(student.getGroup(), student.getFirstName(),
+                    student.getLastName(), student.getBirthYear(), grades));
+            } else if (op < 5) {
+                int id = random.nextInt(nextId);
+                if (roster.remove(id) != (model.remove(id) != null)) throw new AssertionError("removing " + id);
+            } else {
+                int id = random.nextInt(nextId);
+                Expected expected = model.get(id);
+                if (expected == null) continue;
+                Student student = roster.student(roster.rowOf(id), null);
+                for (int g = 1 + random.nextInt(3); g > 0; g--) {
+                    int grade = 1 + random.nextInt(5);
+                    student.appendGrade(grade);
+                    expected.grades().add(grade);
+                }
+                roster.put(StudentRow.capture(student));
+            }
+            // a compaction leaves a heap sized to the live grades, so the footprint drops
+            long now = roster.footprint();
+            if (now < footprint) shrinks++;
+            footprint = now;
+            if (step % CHECK_EVERY == 0) compare(roster, model, "step " + step);
+        }
+        compare(roster, model, "end");
+        if (shrinks == 0) throw new AssertionError("the grade heap never shrank, so it was never compacted");
+        System.out.println("ColumnarRoster" + (offHeap ? " (off-heap)" : "") + ": same as the model after " + steps
+            + " steps, " + roster.size() + " rows, " + shrinks + " compactions that shrank the heap, " + roster.footprint() + " bytes");
+    }
+
+    private static void compare(ColumnarRoster roster, Map<Integer, Expected> model, String label) {
+        if (roster.size() != model.size()) throw new AssertionError(label + ": " + roster.size() + " rows, expected " + model.size());
+        int[] groupSizes = new int[StudentGroup.values().length];
+        for (Map.Entry<Integer, Expected> entry : model.entrySet()) {
+            int id = entry.getKey();
+            Expected expected = entry.getValue();
+            groupSizes[expected.group().ordinal()]++;
+            int row = roster.rowOf(id);
+            if (row < 0 || roster.id(row) != id) throw new AssertionError(label + ": student " + id + " is not at its row");
+            byte[] grades = roster.grades(row);
+            int sum = 0;
+            List<Integer> actual = new ArrayList<>();
+            for (byte grade : grades) {
+                actual.add((int) grade);
+                sum += grade;
+            }
+            if (roster.group(row) != expected.group()
+                    || !roster.firstName(row).equals(expected.firstName())
+                    || !roster.lastName(row).equals(expected.lastName())
+                    || roster.birthYear(row) != expected.birthYear()
+                    || !actual.equals(expected.grades())
+                    || roster.gradeCount(row) != grades.length
+                    || roster.gradeSum(row) != sum) {
+                throw new AssertionError(label + ": student " + id + " is " + roster.firstName(row) + " "
+                    + roster.lastName(row) + " " + roster.birthYear(row) + " " + actual + " (count " + roster.gradeCount(row)
+                    + ", sum " + roster.gradeSum(row) + "), expected " + expected);
+            }
+        }
+        for (StudentGroup group : StudentGroup.values()) {
+            if (roster.size(group) != groupSizes[group.ordinal()]) throw new AssertionError(label + ": size of " + group);
+        }
+        int[] ids = model.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+        int[] paged = new int[ids.length];
+        int filled = 0;
+        int after = Integer.MIN_VALUE;
+        while (true) {
+            int[] page = roster.page(after, 1000);
+            for (int row : page) {
+                paged[filled++] = roster.id(row);
+            }
+            if (page.length < 1000) break;
+            after = paged[filled - 1];
+        }
+        if (!Arrays.equals(ids, paged)) throw new AssertionError(label + ": paging by ID");
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+// Checks the mutation journal over the append log engine: a database closed
+// without saving gets its changes back from the journal when reopened; a
+// journal cut off mid-record keeps every record before the cut, while one with
+// a corrupt record that intact records follow is refused, both when opened and
+// when replayed; and rebuildFrom reproduces the roster as it was at each of a
+// series of times, across roll()s into new files. Exits non-zero on the first
+// difference.
+// Run by mvn test here; by hand: mvn test-compile exec:exec@journal-check
+public final class JournalCheck {
+    // Small enough that a few rounds of changes roll the journal.
+    private static final int SEGMENT_BYTES = 64 << 10;
+
+    private JournalCheck() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        checkRecovery(5);
+        System.out.println("journal: unsaved changes come back on reopening");
+        checkDamage(6);
+        System.out.println("journal: keeps the records before a torn tail, refuses a corrupt middle");
+        checkPointInTime(7);
+        System.out.println("journal: rebuilds the roster as it was at each time, across rolls");
+        System.exit(0);
+    }
+
+    private static void checkRecovery(long seed) throws Exception {
+        Path file = Rosters.tempDatabase();
+        String path = file.toString();
+        Random random = new Random(seed);
+        try {
+            StudentDatabase db = new StudentDatabase(path, new LogStorage(path), true);
+            churn(db, random, 500);
+            db.saveData();
+            churn(db, random, 500);
+            String expected = RosterEquivalence.roster(db);
+            db.close();
+            db = new StudentDatabase(path, new LogStorage(path), true);
+            same("reopened roster", expected, RosterEquivalence.roster(db));
+            db.close();
+        } finally {
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    private static void checkDamage(long seed) throws Exception {
+        Path file = Rosters.tempDatabase();
+        String path = file.toString();
+        Path journal = MutationLog.pathFor(path);
+        Random random = new Random(seed);
+        try {
+            StudentDatabase db = new StudentDatabase(path, new LogStorage(path), true);
+            churn(db, random, 500);
+            db.close();
+            byte[] whole = Files.readAllBytes(journal);
+            long records = count(journal);
+
+            // opening cuts off the record being written and nothing before it
+            Files.write(journal, Arrays.copyOf(whole, whole.length - 3));
+            new MutationLog(journal).close();
+            same("records before a torn tail", records - 1, count(journal));
+
+            // a bad record with intact ones after it is corruption, not a torn write
+            byte[] corrupt = whole.clone();
+            corrupt[corrupt.length / 2] ^= 0x10;
+            Files.write(journal, corrupt);
+            try {
+                new MutationLog(journal).close();
+                throw new AssertionError("a journal with a corrupt record in the middle was opened");
+            } catch (IOException expected) {
+                // refused
+            }
+            same("corrupt journal size", (long) corrupt.length, Files.size(journal));
+            try {
+                count(journal);
+                throw new AssertionError("a journal with a corrupt record in the middle was replayed");
+            } catch (IOException expected) {
+                // refused
+            }
+        } finally {
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    private static void checkPointInTime(long seed) throws Exception {
+        Path file = Rosters.tempDatabase();
+        String path = file.toString();
+        Path journal = MutationLog.pathFor(path);
+        Random random = new Random(seed);
+        System.setProperty(MutationLog.SEGMENT_PROPERTY, String.valueOf(SEGMENT_BYTES));
+        try {
+            StudentDatabase db = new StudentDatabase(path, new LogStorage(path), true);
+            long beforeImage = System.currentTimeMillis() - 1;
+            List<Long> times = new ArrayList<>();
+            List<String> rosters = new ArrayList<>();
+            // two rolls, so no old file has been deleted yet and every time can be rebuilt
+            while (MutationLog.segments(journal).size() < 1 + MutationLog.KEEP_SEGMENTS) {
+                churn(db, random, 300);
+                db.saveData();
+                // every change before the time is at most at it, every one after it later
+                Thread.sleep(2);
+                times.add(System.currentTimeMillis());
+                rosters.add(RosterEquivalence.roster(db));
+                Thread.sleep(2);
+                if (times.size() > 100) throw new AssertionError("the journal never rolled");
+            }
+            churn(db, random, 300);
+            db.close();
+
+            for (int i = 0; i < times.size(); i++) {
+                StudentDatabase rebuilt = new StudentDatabase("replay", new MemoryStorage());
+                rebuilt.rebuildFrom(journal, times.get(i));
+                same("roster rebuilt as of step " + i, rosters.get(i), RosterEquivalence.roster(rebuilt));
+                rebuilt.close();
+            }
+            StudentDatabase rebuilt = new StudentDatabase("replay", new MemoryStorage());
+            try {
+                rebuilt.rebuildFrom(journal, beforeImage);
+                throw new AssertionError("rebuilt a roster from before the journal's first image");
+            } catch (IOException expected) {
+                // nothing to start from
+            } finally {
+                rebuilt.close();
+            }
+        } finally {
+            System.clearProperty(MutationLog.SEGMENT_PROPERTY);
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    // Adds students, then grades or removes as many picked at random.
+    private static void churn(StudentDatabase db, Random random, int adds) {
+        for (int i = 0; i < adds; i++) {
+            db.addStudent(Rosters.newStudent(random, i));
+        }
+        List<Student> all = db.getAllStudents();
+        for (int i = 0; i < adds; i++) {
+            Student student = all.get(random.nextInt(all.size()));
+            if (random.nextInt(4) == 0) {
+                db.removeStudent(student.getId());
+            } else if (db.findStudent(student.getId()) != null) {
+                student.addGrade(1 + random.nextInt(5));
+            }
+        }
+    }
+
+    // Every record of the journal, images and checkpoints included.
+    private static long count(Path journal) throws IOException {
+        long[] records = new long[1];
+        MutationLog.replay(journal, Long.MAX_VALUE, new MutationLog.Visitor() {
+            @Override
+            public void added(long sequence, long time, Student student) {
+                records[0]++;
+            }
+
+            @Override
+            public void gradeAdded(long sequence, long time, int id, int index, int grade) {
+                records[0]++;
+            }
+
+            @Override
+            public void removed(long sequence, long time, int id) {
+                records[0]++;
+            }
+
+            @Override
+            public void checkpoint(long sequence, long time, MutationLog.Mark saved) {
+                records[0]++;
+            }
+
+            @Override
+            public void image(long sequence, long time) {
+                records[0]++;
+            }
+        });
+        return records[0];
+    }
+
+    private static void same(String what, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(what + " differs\n  expected: " + expected + "\n  actual: " + actual);
+        }
+    }
+}
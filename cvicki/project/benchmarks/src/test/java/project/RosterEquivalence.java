@@ -0,0 +1,231 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+
+// Checks that a storage engine answers like the in-memory roster: every random
+// add, grade and removal is made in both databases, and after each round every
+// query is compared. The engine is then reopened and checked again, and a file
+// in SQLite must hold the same roster for the plain loader. The append log is
+// also reopened cut off mid-record, with a corrupt record in the middle, and
+// once it is big enough to be compacted. Exits non-zero on the first difference.
+// Run by mvn test here; by hand: mvn test-compile exec:exec@roster-equivalence
+public final class RosterEquivalence {
+    private static final String[] NAMES = {"Novak", "novotny", "Nov*k", "Dvorak", "Svoboda", "N[o]", "Ab?"};
+    private static final String[] PREFIXES = {"Nov", "Nov*", "N[", "Ab?", "no", ""};
+
+    private RosterEquivalence() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        String[] engines = args.length > 0 ? args : new String[] {"sql"};
+        for (String engine : engines) {
+            check(engine, 9);
+            System.out.println(engine + ": same as memory");
+            if (engine.equals("log")) {
+                checkDamagedLog(11);
+                System.out.println("log: keeps a torn tail's predecessors, refuses a corrupt middle, compacts");
+            }
+        }
+        System.exit(0);
+    }
+
+    static void check(String engine, long seed) throws Exception {
+        Path file = Rosters.tempDatabase();
+        String path = file.toString();
+        Random random = new Random(seed);
+        StudentDatabase memory = new StudentDatabase(path, new MemoryStorage());
+        StudentDatabase tested = new StudentDatabase(path, StorageEngine.open(engine, path, false));
+        try {
+            for (int round = 0; round < 4; round++) {
+                mirror(memory, tested, random);
+                if (random.nextBoolean()) tested.saveData();
+                compare(memory, tested, random, engine + " round " + round);
+            }
+            tested.close();
+            tested = new StudentDatabase(path, StorageEngine.open(engine, path, false));
+            compare(memory, tested, random, engine + " reopened");
+            if (tested.getStorageDescription().contains("SQLite")) {
+                tested.close();
+                tested = new StudentDatabase(path, new SqliteStorage(path, false, false));
+                compare(memory, tested, random, engine + " loaded by SQLite");
+            }
+        } finally {
+            tested.close();
+            memory.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    private static void checkDamagedLog(long seed) throws Exception {
+        Path file = Rosters.tempDatabase();
+        String path = file.toString();
+        Random random = new Random(seed);
+        StudentDatabase memory = new StudentDatabase(path, new MemoryStorage());
+        try {
+            StudentDatabase tested = new StudentDatabase(path, new LogStorage(path));
+            mirror(memory, tested, random);
+            tested.saveData();
+            String saved = roster(memory);
+            long savedSize = Files.size(file);
+            mirror(memory, tested, random);
+            tested.saveData();
+            tested.close();
+            byte[] whole = Files.readAllBytes(file);
+
+            // a write cut off in its first record leaves the roster of the save before it
+            Files.write(file, Arrays.copyOf(whole, (int) savedSize + 5));
+            tested = new StudentDatabase(path, new LogStorage(path));
+            same("torn log roster", saved, roster(tested));
+            tested.close();
+            same("torn log size", savedSize, Files.size(file));
+
+            // one bad record with intact ones after it is corruption, not a torn write
+            byte[] corrupt = whole.clone();
+            corrupt[(int) savedSize / 2] ^= 0x10;
+            Files.write(file, corrupt);
+            try (LogStorage log = new LogStorage(path)) {
+                log.load(student -> { }, null);
+                throw new AssertionError("a log with a corrupt record in the middle was loaded");
+            } catch (IOException expected) {
+                // refused
+            }
+            same("corrupt log size", (long) corrupt.length, Files.size(file));
+
+            // churn past the compaction threshold, then reopen: the compacted file holds the same roster
+            Files.write(file, whole);
+            tested = new StudentDatabase(path, new LogStorage(path));
+            for (int round = 0; round < 30; round++) {
+                mirror(memory, tested, random);
+                tested.saveData();
+                for (Student student : memory.getAllStudents()) {
+                    memory.removeStudent(student.getId());
+                    tested.removeStudent(student.getId());
+                }
+                tested.saveData();
+            }
+            mirror(memory, tested, random);
+            tested.saveData();
+            tested.close();
+            long churned = Files.size(file);
+            tested = new StudentDatabase(path, new LogStorage(path));
+            same("compacting log roster", roster(memory), roster(tested));
+            tested.close();
+            if (Files.size(file) * 2 > churned) {
+                throw new AssertionError("the log was not compacted: " + churned + " bytes, then " + Files.size(file));
+            }
+            tested = new StudentDatabase(path, new LogStorage(path));
+            same("compacted log roster", roster(memory), roster(tested));
+            tested.close();
+        } finally {
+            memory.close();
+            Rosters.deleteDatabase(file);
+        }
+    }
+
+    static String roster(StudentDatabase db) {
+        List<Student> all = db.getAllStudents();
+        all.sort(Comparator.comparingInt(Student::getId));
+        return rows(all);
+    }
+
+    private static void mirror(StudentDatabase memory, StudentDatabase tested, Random random) {
+        for (int i = 0; i < 700; i++) {
+            boolean telecom = random.nextBoolean();
+            String first = NAMES[random.nextInt(NAMES.length)];
+            String last = NAMES[random.nextInt(NAMES.length)] + random.nextInt(50);
+            int birthYear = 1960 + random.nextInt(40);
+            Student a = telecom ? new TelecomStudent(0, first, last, birthYear) : new CyberSecurityStudent(0, first, last, birthYear);
+            Student b = telecom ? new TelecomStudent(0, first, last, birthYear) : new CyberSecurityStudent(0, first, last, birthYear);
+            for (int g = random.nextInt(5); g > 0; g--) {
+                int grade = 1 + random.nextInt(5);
+                a.appendGrade(grade);
+                b.appendGrade(grade);
+            }
+            memory.addStudent(a);
+            tested.addStudent(b);
+            same("new ID", a.getId(), b.getId());
+        }
+        List<Student> all = memory.getAllStudents();
+        for (int i = 0; i < 500; i++) {
+            int id = all.get(random.nextInt(all.size())).getId();
+            if (random.nextInt(4) == 0) {
+                same("removing " + id, memory.removeStudent(id), tested.removeStudent(id));
+            } else if (memory.findStudent(id) != null) {
+                int grade = 1 + random.nextInt(5);
+                memory.findStudent(id).addGrade(grade);
+                tested.findStudent(id).addGrade(grade);
+            }
+        }
+    }
+
+    private static void compare(StudentDatabase memory, StudentDatabase tested, Random random, String label) {
+        for (StudentGroup group : StudentGroup.values()) {
+            String name = group.getLabel();
+            same(label + " count", memory.getGroupCount(name), tested.getGroupCount(name));
+            if (Math.abs(memory.getGroupAverage(name) - tested.getGroupAverage(name)) > 1e-9) {
+                throw new AssertionError(label + " average of " + name);
+            }
+            for (StudentOrder order : StudentOrder.values()) {
+                for (boolean descending : new boolean[] {false, true}) {
+                    same(label + " sorted by " + order + (descending ? " desc" : ""),
+                        rows(memory.getStudentsSorted(group, order, descending)),
+                        rows(tested.getStudentsSorted(group, order, descending)));
+                    same(label + " page by " + order + (descending ? " desc" : ""),
+                        rows(memory.getStudentsSorted(group, order, descending, 30, 25)),
+                        rows(tested.getStudentsSorted(group, order, descending, 30, 25)));
+                }
+            }
+            same(label + " top", rows(memory.getTopByAverage(group, 10)), rows(tested.getTopByAverage(group, 10)));
+            same(label + " bottom", rows(memory.getBottomByAverage(group, 10)), rows(tested.getBottomByAverage(group, 10)));
+            same(label + " average range", rows(memory.getStudentsWithAverage(group, 2.5, 3.5)),
+                rows(tested.getStudentsWithAverage(group, 2.5, 3.5)));
+            same(label + " ID range", rows(memory.getStudentsInIdRange(group, 10100, 10400)),
+                rows(tested.getStudentsInIdRange(group, 10100, 10400)));
+            for (String prefix : PREFIXES) {
+                same(label + " prefix " + prefix, rows(memory.getStudentsByLastNamePrefix(group, prefix)),
+                    rows(tested.getStudentsByLastNamePrefix(group, prefix)));
+            }
+        }
+        for (int i = 0; i < 100; i++) {
+            StudentQuery query = new StudentQuery();
+            if (random.nextBoolean()) query.lastNamePrefix(new String[] {"nov", "n[", "sv", "ab?"}[random.nextInt(4)]);
+            if (random.nextBoolean()) query.bornBetween(1970, 1980);
+            if (random.nextBoolean()) query.averageAtLeast(3);
+            if (random.nextBoolean()) query.group(StudentGroup.TELECOM);
+            if (random.nextBoolean()) query.limit(7);
+            same(label + " query", rows(memory.query(query)), rows(tested.query(query)));
+        }
+        List<Student> expected = memory.getAllStudents();
+        expected.sort(Comparator.comparingInt(Student::getId));
+        List<Student> actual = tested.getAllStudents();
+        actual.sort(Comparator.comparingInt(Student::getId));
+        same(label + " roster", rows(expected), rows(actual));
+        same(label + " analytics", memory.getGradeAnalytics().report(), tested.getGradeAnalytics().report());
+        if (!actual.isEmpty()) {
+            Student any = actual.get(0);
+            if (tested.findStudent(any.getId()) != any) throw new AssertionError(label + ": two objects for student " + any.getId());
+        }
+    }
+
+    private static String rows(List<Student> students) {
+        StringBuilder out = new StringBuilder();
+        for (Student student : students) {
+            out.append(student.getId()).append(' ').append(student.getGroup()).append(' ')
+                .append(student.getFirstName()).append(' ').append(student.getLastName()).append(' ')
+                .append(student.getBirthYear()).append(' ').append(Arrays.toString(student.getGrades())).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void same(String what, Object expected, Object actual) {
+        if (!expected.equals(actual)) {
+            throw new AssertionError(what + " differs\n  memory: " + expected + "\n  engine: " + actual);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,250 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+// Runs one command per line and prints one JSON object per command:
+//   add <group> <firstName> <lastName> <birthYear>
+//   grade <id> <grade>...
+//   remove <id>
+//   find <id>
+//   query [group=<group>] [first=<prefix>] [last=<prefix>] [born=<from>-<to>] [average=<min>-<max>] [limit=<n>]
+//   stats
+//   import <file>
+//   export <csv|ndjson> <file> [all|Telecom|CyberSecurity]
+//   save
+//   metrics [file]
+// Group is 1/Telecom or 2/CyberSecurity. Names containing spaces go in double
+// quotes. Blank lines and lines starting with # are skipped. Only the results
+// go to the writer; the database's own messages go to stderr.
+class BatchRunner {
+    private final StudentDatabase db;
+    private final BufferedWriter out;
+    private int lineNumber;
+    private int failures;
+
+    public BatchRunner(StudentDatabase db, Writer out) {
+        this.db = db;
+        this.out = new BufferedWriter(out, 1 << 16);
+    }
+
+    public int run(BufferedReader commands) throws IOException {
+        String line;
+        while ((line = commands.readLine()) != null) {
+            lineNumber++;
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) continue;
+
+            List<String> args = tokenize(line);
+            String op = args.get(0).toLowerCase();
+            StringBuilder result = new StringBuilder(128);
+            try {
+                result.append("{\"op\":").append(Json.quote(op)).append(",\"ok\":true");
+                execute(op, args, result);
+                result.append('}');
+            } catch (IllegalArgumentException | IllegalStateException | IOException | UncheckedIOException e) {
+                failures++;
+                result.setLength(0);
+                result.append("{\"op\":").append(Json.quote(op))
+                      .append(",\"ok\":false,\"line\":").append(lineNumber)
+                      .append(",\"error\":").append(Json.quote(String.valueOf(e.getMessage()))).append('}');
+            }
+            out.write(result.toString());
+            out.newLine();
+        }
+        out.flush();
+        return failures;
+    }
+
+    private void execute(String op, List<String> args, StringBuilder result) throws IOException {
+        switch (op) {
+            case "add" -> {
+                expectArgs(args, 5);
+                Student student = StudentImporter.toStudent(Map.of(
+                        "Group", args.get(1), "FirstName", args.get(2),
+                        "LastName", args.get(3), "BirthYear", args.get(4)));
+                db.addStudent(student);
+                result.append(",\"id\":").append(student.getId());
+            }
+            case "grade" -> {
+                if (args.size() < 3) throw new IllegalArgumentException("usage: grade <id> <grade>...");
+                Student student = requireStudent(args.get(1));
+                for (int i = 2; i < args.size(); i++) {
+                    int grade = parseInt(args.get(i), "grade");
+                    if (grade < 1 || grade > 5) throw new IllegalArgumentException("grade " + grade + " must be 1-5");
+                }
+                for (int i = 2; i < args.size(); i++) {
+                    student.addGrade(Integer.parseInt(args.get(i)));
+                }
+                result.append(",\"id\":").append(student.getId())
+                      .append(",\"average\":").append(student.getAverageGrade());
+            }
+            case "remove" -> {
+                expectArgs(args, 2);
+                int id = parseInt(args.get(1), "id");
+                if (!db.removeStudent(id)) throw new IllegalArgumentException("student " + id + " not found");
+                result.append(",\"id\":").append(id);
+            }
+            case "find" -> {
+                expectArgs(args, 2);
+                result.append(",\"student\":");
+                Json.appendStudent(result, requireStudent(args.get(1)));
+            }
+            case "query" -> {
+                List<Student> found = db.query(parseQuery(args));
+                result.append(",\"count\":").append(found.size()).append(",\"students\":[");
+                for (int i = 0; i < found.size(); i++) {
+                    if (i > 0) result.append(',');
+                    Json.appendStudent(result, found.get(i));
+                }
+                result.append(']');
+            }
+            case "stats" -> {
+                expectArgs(args, 1);
+                for (StudentGroup group : StudentGroup.values()) {
+                    result.append(",\"").append(group.getLabel()).append("\":{\"count\":")
+                          .append(db.getGroupCount(group.getLabel()))
+                          .append(",\"average\":").append(db.getGroupAverage(group.getLabel())).append('}');
+                }
+            }
+            case "import" -> {
+                expectArgs(args, 2);
+                StudentImporter.Result imported = new StudentImporter(db).importFile(Path.of(args.get(1)));
+                result.append(",\"imported\":").append(imported.imported())
+                      .append(",\"errors\":[");
+                List<String> errors = imported.errors();
+                for (int i = 0; i < errors.size(); i++) {
+                    if (i > 0) result.append(',');
+                    Json.appendQuoted(result, errors.get(i));
+                }
+                result.append(']');
+            }
+            case "export" -> {
+                if (args.size() < 3 || args.size() > 4) {
+                    throw new IllegalArgumentException("usage: export <csv|ndjson> <file> [all|Telecom|CyberSecurity]");
+                }
+                StudentExporter.Format format = switch (args.get(1).toLowerCase()) {
+                    case "csv" -> StudentExporter.Format.CSV;
+                    case "ndjson" -> StudentExporter.Format.NDJSON;
+                    default -> throw new IllegalArgumentException("unknown export format " + args.get(1));
+                };
+                String filter = args.size() == 4 ? args.get(3) : "all";
+                StudentGroup group = filter.equalsIgnoreCase("all") ? null : parseGroup(filter);
+                StudentExporter.Result exported = new StudentExporter(db).export(Path.of(args.get(2)), format, true,
+                        s -> group == null || s.getGroup() == group);
+                result.append(",\"rows\":").append(exported.rows())
+                      .append(",\"bytes\":").append(exported.bytes())
+                      .append(",\"rowsPerSecond\":").append(Math.round(exported.rowsPerSecond()));
+            }
+            case "save" -> {
+                expectArgs(args, 1);
+                db.saveData();
+            }
+            case "metrics" -> {
+                if (args.size() > 2) throw new IllegalArgumentException("usage: metrics [file]");
+                if (args.size() == 2) db.getMetrics().dump(Path.of(args.get(1)));
+                result.append(",\"metrics\":");
+                db.getMetrics().appendJson(result);
+            }
+            default -> throw new IllegalArgumentException("unknown command " + op);
+        }
+    }
+
+    private static StudentQuery parseQuery(List<String> args) {
+        StudentQuery query = new StudentQuery();
+        for (int i = 1; i < args.size(); i++) {
+            String arg = args.get(i);
+            int eq = arg.indexOf('=');
+            if (eq < 0) throw new IllegalArgumentException("query filter '" + arg + "' is not key=value");
+            String value = arg.substring(eq + 1);
+            switch (arg.substring(0, eq).toLowerCase()) {
+                case "group" -> query.group(parseGroup(value));
+                case "first" -> query.firstNamePrefix(value);
+                case "last" -> query.lastNamePrefix(value);
+                case "born" -> {
+                    int dash = value.indexOf('-', 1);
+                    query.bornBetween(parseInt(dash < 0 ? value : value.substring(0, dash), "born"),
+                            parseInt(dash < 0 ? value : value.substring(dash + 1), "born"));
+                }
+                case "average" -> {
+                    int dash = value.indexOf('-', 1);
+                    query.averageBetween(parseDouble(dash < 0 ? value : value.substring(0, dash), "average"),
+                            parseDouble(dash < 0 ? value : value.substring(dash + 1), "average"));
+                }
+                case "limit" -> query.limit(parseInt(value, "limit"));
+                default -> throw new IllegalArgumentException("unknown query filter " + arg.substring(0, eq));
+            }
+        }
+        return query;
+    }
+
+    private static StudentGroup parseGroup(String value) {
+        return switch (value) {
+            case "1", "Telecom" -> StudentGroup.TELECOM;
+            case "2", "CyberSecurity" -> StudentGroup.CYBER_SECURITY;
+            default -> throw new IllegalArgumentException(
+                    "Group must be 1/Telecom or 2/CyberSecurity, got '" + value + "'");
+        };
+    }
+
+    private Student requireStudent(String value) {
+        int id = parseInt(value, "id");
+        Student student = db.findStudent(id);
+        if (student == null) throw new IllegalArgumentException("student " + id + " not found");
+        return student;
+    }
+
+    private static int parseInt(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " '" + value + "' is not a number");
+        }
+    }
+
+    private static double parseDouble(String value, String name) {
+        try {
+            return Double.parseDouble(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " '" + value + "' is not a number");
+        }
+    }
+
+    private static void expectArgs(List<String> args, int count) {
+        if (args.size() != count) {
+            throw new IllegalArgumentException(args.get(0) + " expects " + (count - 1) + " argument(s)");
+        }
+    }
+
+    static List<String> tokenize(String line) {
+        List<String> tokens = new ArrayList<>();
+        StringBuilder current = new StringBuilder();
+        boolean quoted = false;
+        boolean inToken = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (c == '"') {
+                quoted = !quoted;
+                inToken = true;
+            } else if (Character.isWhitespace(c) && !quoted) {
+                if (inToken) {
+                    tokens.add(current.toString());
+                    current.setLength(0);
+                    inToken = false;
+                }
+            } else {
+                current.append(c);
+                inToken = true;
+            }
+        }
+        if (inToken) tokens.add(current.toString());
+        return tokens;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,519 @@
+package project;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntPredicate;
+
+// The roster as parallel columns instead of one object per student. Each of
+// ID, birth year, group, first and last name (as NameDictionary codes) and the
+// grade count and sum has a buffer of its own. Grades are packed two to a byte,
+// low nibble first like RosterSnapshot, in one heap shared by all rows; a row
+// whose slot there fills up moves to a bigger one at the end. Buffers are on the
+// Java heap, or direct to keep the roster off it.
+//
+// Scans and aggregates read only the columns they need, and Student objects are
+// made only for the rows a caller asks for. Rows stay dense: removing one moves
+// the last row into its place. Not thread-safe.
+class ColumnarRoster {
+    private static final StudentGroup[] GROUPS = StudentGroup.values();
+    private static final int INITIAL_ROWS = 1024;
+    // The grade heap is compacted once this much of it, in grades, is dead.
+    private static final int MIN_GARBAGE = 1 << 16;
+
+    private interface RowOrder {
+        int compare(int a, int b);
+    }
+
+    private final boolean offHeap;
+    private final NameDictionary names;
+    private final IntIntMap rows = new IntIntMap();
+    private final int[] groupSizes = new int[GROUPS.length];
+    private int size;
+    private int capacity;
+    private ByteBuffer ids;
+    private ByteBuffer birthYears;
+    private ByteBuffer groups;
+    private ByteBuffer firstNames;
+    private ByteBuffer lastNames;
+    private ByteBuffer gradeCounts;
+    private ByteBuffer gradeSums;
+    // Where each row's slot starts in the grade heap and how many grades it holds.
+    private ByteBuffer gradeStarts;
+    private ByteBuffer gradeSlots;
+    private ByteBuffer gradeHeap;
+    private int gradeEnd;
+    private int gradeGarbage;
+
+    public ColumnarRoster(boolean offHeap) {
+        this.offHeap = offHeap;
+        names = new NameDictionary(offHeap);
+        capacity = INITIAL_ROWS;
+        ids = allocate(capacity * 4);
+        birthYears = allocate(capacity * 2);
+        groups = allocate(capacity);
+        firstNames = allocate(capacity * 4);
+        lastNames = allocate(capacity * 4);
+        gradeCounts = allocate(capacity * 4);
+        gradeSums = allocate(capacity * 4);
+        gradeStarts = allocate(capacity * 4);
+        gradeSlots = allocate(capacity * 4);
+        gradeHeap = allocate(capacity * 2);
+    }
+
+    private ByteBuffer allocate(int bytes) {
+        ByteBuffer buffer = offHeap ? ByteBuffer.allocateDirect(bytes) : ByteBuffer.allocate(bytes);
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+
+    private ByteBuffer grow(ByteBuffer buffer, int bytes) {
+        ByteBuffer grown = allocate(bytes);
+        grown.put(0, buffer, 0, buffer.capacity());
+        return grown;
+    }
+
+    public boolean isOffHeap() {
+        return offHeap;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int size(StudentGroup group) {
+        return groupSizes[group.ordinal()];
+    }
+
+    // Bytes held by the columns, the grade heap and the name dictionary.
+    public long footprint() {
+        return names.footprint() + ids.capacity() + birthYears.capacity() + groups.capacity() + firstNames.capacity()
+            + lastNames.capacity() + gradeCounts.capacity() + gradeSums.capacity() + gradeStarts.capacity()
+            + gradeSlots.capacity() + gradeHeap.capacity();
+    }
+
+    public int nameCount() {
+        return names.size();
+    }
+
+    // Row of the student with this ID, or -1. A row number is only good until
+    // the next change to the roster.
+    public int rowOf(int id) {
+        return rows.get(id, -1);
+    }
+
+    public int id(int row) {
+        return ids.getInt(row << 2);
+    }
+
+    public StudentGroup group(int row) {
+        return GROUPS[groups.get(row)];
+    }
+
+    public int birthYear(int row) {
+        return birthYears.getShort(row << 1);
+    }
+
+    public String firstName(int row) {
+        return names.decode(firstNames.getInt(row << 2));
+    }
+
+    public String lastName(int row) {
+        return names.decode(lastNames.getInt(row << 2));
+    }
+
+    public int gradeCount(int row) {
+        return gradeCounts.getInt(row << 2);
+    }
+
+    public int gradeSum(int row) {
+        return gradeSums.getInt(row << 2);
+    }
+
+    public double average(int row) {
+        int count = gradeCount(row);
+        return count == 0 ? 0.0 : (double) gradeSum(row) / count;
+    }
+
+    public byte[] grades(int row) {
+        int start = gradeStarts.getInt(row << 2);
+        byte[] grades = new byte[gradeCount(row)];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = (byte) grade(start + i);
+        }
+        return grades;
+    }
+
+    // Birth years are kept in a short, as in RosterSnapshot.
+    static boolean fits(int birthYear) {
+        return birthYear == (short) birthYear;
+    }
+
+    // Adds the student with the grades it holds now, replacing any row with its ID.
+    public void add(Student student) {
+        int[] grades = student.getGrades();
+        int row = put(student.getId(), student.getGroup(), student.getFirstName(), student.getLastName(),
+            student.getBirthYear());
+        reserveSlot(row, grades.length);
+        int start = gradeStarts.getInt(row << 2);
+        int sum = 0;
+        for (int i = 0; i < grades.length; i++) {
+            setGrade(start + i, grades[i]);
+            sum += grades[i];
+        }
+        gradeCounts.putInt(row << 2, grades.length);
+        gradeSums.putInt(row << 2, sum);
+    }
+
+    // Applies a saved row the way SqliteStorage does: the summary as given and
+    // the new grades written from firstNewGrade on.
+    public void put(StudentRow saved) {
+        int row = put(saved.id(), saved.group(), saved.firstName(), saved.lastName(), saved.birthYear());
+        byte[] added = saved.newGrades();
+        reserveSlot(row, Math.max(saved.gradeCount(), saved.firstNewGrade() + added.length));
+        int start = gradeStarts.getInt(row << 2) + saved.firstNewGrade();
+        for (int i = 0; i < added.length; i++) {
+            setGrade(start + i, added[i]);
+        }
+        gradeCounts.putInt(row << 2, saved.gradeCount());
+        gradeSums.putInt(row << 2, saved.gradeSum());
+    }
+
+    private int put(int id, StudentGroup group, String firstName, String lastName, int birthYear) {
+        if (!fits(birthYear)) {
+            throw new IllegalArgumentException("Birth year " + birthYear + " does not fit the roster columns");
+        }
+        int row = rows.get(id, -1);
+        if (row < 0) {
+            if (size == capacity) growRows();
+            row = size++;
+            rows.put(id, row);
+            ids.putInt(row << 2, id);
+            gradeCounts.putInt(row << 2, 0);
+            gradeSums.putInt(row << 2, 0);
+            gradeStarts.putInt(row << 2, gradeEnd);
+            gradeSlots.putInt(row << 2, 0);
+        } else {
+            groupSizes[groups.get(row)]--;
+        }
+        groupSizes[group.ordinal()]++;
+        groups.put(row, (byte) group.ordinal());
+        birthYears.putShort(row << 1, (short) birthYear);
+        firstNames.putInt(row << 2, names.encode(firstName));
+        lastNames.putInt(row << 2, names.encode(lastName));
+        return row;
+    }
+
+    private void growRows() {
+        capacity *= 2;
+        ids = grow(ids, capacity * 4);
+        birthYears = grow(birthYears, capacity * 2);
+        groups = grow(groups, capacity);
+        firstNames = grow(firstNames, capacity * 4);
+        lastNames = grow(lastNames, capacity * 4);
+        gradeCounts = grow(gradeCounts, capacity * 4);
+        gradeSums = grow(gradeSums, capacity * 4);
+        gradeStarts = grow(gradeStarts, capacity * 4);
+        gradeSlots = grow(gradeSlots, capacity * 4);
+    }
+
+    public boolean remove(int id) {
+        int row = rows.remove(id, -1);
+        if (row < 0) return false;
+        groupSizes[groups.get(row)]--;
+        gradeGarbage += gradeSlots.getInt(row << 2);
+        int last = --size;
+        if (row != last) {
+            ids.putInt(row << 2, ids.getInt(last << 2));
+            birthYears.putShort(row << 1, birthYears.getShort(last << 1));
+            groups.put(row, groups.get(last));
+            firstNames.putInt(row << 2, firstNames.getInt(last << 2));
+            lastNames.putInt(row << 2, lastNames.getInt(last << 2));
+            gradeCounts.putInt(row << 2, gradeCounts.getInt(last << 2));
+            gradeSums.putInt(row << 2, gradeSums.getInt(last << 2));
+            gradeStarts.putInt(row << 2, gradeStarts.getInt(last << 2));
+            gradeSlots.putInt(row << 2, gradeSlots.getInt(last << 2));
+            rows.put(id(row), row);
+        }
+        return true;
+    }
+
+    private int grade(int index) {
+        int packed = gradeHeap.get(index >>> 1);
+        return (index & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF;
+    }
+
+    private void setGrade(int index, int grade) {
+        int packed = gradeHeap.get(index >>> 1);
+        packed = (index & 1) == 0 ? (packed & 0xF0) | grade : (packed & 0x0F) | (grade << 4);
+        gradeHeap.put(index >>> 1, (byte) packed);
+    }
+
+    // Makes room for the row's first `needed` grades, moving its slot to the end
+    // of the heap at twice the size when it is too small.
+    private void reserveSlot(int row, int needed) {
+        if (needed <= gradeSlots.getInt(row << 2)) return;
+        if (gradeGarbage >= MIN_GARBAGE && gradeGarbage > gradeEnd / 2) compactGrades();
+        int slot = gradeSlots.getInt(row << 2);
+        int from = gradeStarts.getInt(row << 2);
+        int grown = Math.max(needed, Math.max(4, slot * 2));
+        int bytes = (int) (((long) gradeEnd + grown + 1) / 2);
+        if (bytes > gradeHeap.capacity()) {
+            gradeHeap = grow(gradeHeap, Math.max(bytes, gradeHeap.capacity() * 2));
+        }
+        for (int i = 0; i < slot; i++) {
+            setGrade(gradeEnd + i, grade(from + i));
+        }
+        gradeStarts.putInt(row << 2, gradeEnd);
+        gradeSlots.putInt(row << 2, grown);
+        gradeEnd += grown;
+        gradeGarbage += slot;
+    }
+
+    // Copies every row's grades into a fresh heap with no room to spare.
+    private void compactGrades() {
+        ByteBuffer old = gradeHeap;
+        int oldEnd = gradeEnd;
+        gradeHeap = allocate(Math.max(INITIAL_ROWS, (oldEnd - gradeGarbage + 1) / 2));
+        gradeEnd = 0;
+        for (int row = 0; row < size; row++) {
+            int count = gradeCounts.getInt(row << 2);
+            int from = gradeStarts.getInt(row << 2);
+            for (int i = 0; i < count; i++) {
+                int index = from + i;
+                int packed = old.get(index >>> 1);
+                setGrade(gradeEnd + i, (index & 1) == 0 ? packed & 0xF : (packed >>> 4) & 0xF);
+            }
+            gradeStarts.putInt(row << 2, gradeEnd);
+            gradeSlots.putInt(row << 2, count);
+            gradeEnd += count;
+        }
+        gradeGarbage = 0;
+    }
+
+    // A new Student for the row. With a loader its grades are left to be loaded
+    // on first use; without one they are filled in. Either way they count as saved.
+    public Student student(int row, GradeLoader loader) {
+        int id = id(row);
+        String firstName = firstName(row);
+        String lastName = lastName(row);
+        int birthYear = birthYear(row);
+        Student student = group(row) == StudentGroup.TELECOM
+            ? new TelecomStudent(id, firstName, lastName, birthYear)
+            : new CyberSecurityStudent(id, firstName, lastName, birthYear);
+        int count = gradeCount(row);
+        if (loader != null) {
+            student.setGradeSummary(count, gradeSum(row), loader);
+        } else if (count > 0) {
+            student.setLoadedGrades(grades(row), count);
+            student.savedGradeCount = count;
+        }
+        return student;
+    }
+
+    public List<Student> students(int[] rows, GradeLoader loader) {
+        List<Student> result = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            result.add(student(row, loader));
+        }
+        return result;
+    }
+
+    // Every row as a Student with its grades, each made as it is read.
+    public List<Student> asList() {
+        return new AbstractList<>() {
+            @Override
+            public Student get(int index) {
+                return student(index, null);
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // Highest ID in the group, or -1 when the group is empty.
+    public int maxId(StudentGroup group) {
+        byte ordinal = (byte) group.ordinal();
+        int max = -1;
+        for (int row = 0; row < size; row++) {
+            if (groups.get(row) == ordinal) max = Math.max(max, ids.getInt(row << 2));
+        }
+        return max;
+    }
+
+    // Mean of the averages of graded students, like GroupStats.
+    public double averageOfAverages(StudentGroup group) {
+        byte ordinal = (byte) group.ordinal();
+        double total = 0;
+        int graded = 0;
+        for (int row = 0; row < size; row++) {
+            int count = gradeCounts.getInt(row << 2);
+            if (count == 0 || groups.get(row) != ordinal) continue;
+            total += (double) gradeSums.getInt(row << 2) / count;
+            graded++;
+        }
+        return graded == 0 ? 0.0 : total / graded;
+    }
+
+    // How often each grade (the array index) was given in the group.
+    public long[] gradeCounts(StudentGroup group) {
+        byte ordinal = (byte) group.ordinal();
+        long[] counts = new long[GradeDistribution.MAX_GRADE + 1];
+        for (int row = 0; row < size; row++) {
+            if (groups.get(row) != ordinal) continue;
+            int start = gradeStarts.getInt(row << 2);
+            int end = start + gradeCounts.getInt(row << 2);
+            for (int i = start; i < end; i++) {
+                int grade = grade(i);
+                if (grade <= GradeDistribution.MAX_GRADE) counts[grade]++;
+            }
+        }
+        return counts;
+    }
+
+    // Rows of one page of the group in the given order, ties going by ID.
+    public int[] sorted(StudentGroup group, StudentOrder order, boolean descending, int offset, int limit) {
+        int end = (int) Math.min((long) offset + limit, size(group));
+        if (offset >= end) return new int[0];
+        int[] first = first(end, inGroup(group), order(order, descending));
+        return Arrays.copyOfRange(first, offset, first.length);
+    }
+
+    // Rows with IDs above afterId, in ID order.
+    public int[] page(int afterId, int limit) {
+        return first(limit, row -> ids.getInt(row << 2) > afterId, order(StudentOrder.ID, false));
+    }
+
+    public int[] averageRange(StudentGroup group, double min, double max) {
+        IntPredicate inGroup = inGroup(group);
+        return first(size(group), row -> {
+            if (!inGroup.test(row)) return false;
+            double average = average(row);
+            return average >= min && average <= max;
+        }, order(StudentOrder.AVERAGE, false));
+    }
+
+    public int[] idRange(StudentGroup group, int from, int to) {
+        IntPredicate inGroup = inGroup(group);
+        return first(size(group), row -> {
+            int id = ids.getInt(row << 2);
+            return id >= from && id <= to && inGroup.test(row);
+        }, order(StudentOrder.ID, false));
+    }
+
+    // Case-sensitive, in last-name order.
+    public int[] lastNamePrefix(StudentGroup group, String prefix) {
+        IntPredicate inGroup = inGroup(group);
+        boolean[] matching = names.startingWith(prefix, false);
+        return first(size(group), row -> matching[lastNames.getInt(row << 2)] && inGroup.test(row),
+            order(StudentOrder.LAST_NAME, false));
+    }
+
+    // Rows matching the whole query, limit included, in ID order. Name prefixes
+    // are checked once per dictionary entry rather than once per row.
+    public int[] select(StudentQuery query) {
+        StudentGroup group = query.getGroup();
+        IntPredicate filter = group == null ? row -> true : inGroup(group);
+        if (query.getFirstNamePrefix() != null) {
+            boolean[] matching = names.startingWith(query.getFirstNamePrefix(), true);
+            filter = filter.and(row -> matching[firstNames.getInt(row << 2)]);
+        }
+        if (query.getLastNamePrefix() != null) {
+            boolean[] matching = names.startingWith(query.getLastNamePrefix(), true);
+            filter = filter.and(row -> matching[lastNames.getInt(row << 2)]);
+        }
+        if (query.hasBirthYearRange()) {
+            int min = query.getMinBirthYear();
+            int max = query.getMaxBirthYear();
+            filter = filter.and(row -> {
+                int year = birthYears.getShort(row << 1);
+                return year >= min && year <= max;
+            });
+        }
+        if (query.hasAverageRange()) {
+            double min = query.getMinAverage();
+            double max = query.getMaxAverage();
+            filter = filter.and(row -> {
+                double average = average(row);
+                return average >= min && average <= max;
+            });
+        }
+        return first(query.getLimit(), filter, order(StudentOrder.ID, false));
+    }
+
+    private IntPredicate inGroup(StudentGroup group) {
+        byte ordinal = (byte) group.ordinal();
+        return row -> groups.get(row) == ordinal;
+    }
+
+    private RowOrder order(StudentOrder order, boolean descending) {
+        RowOrder byId = (a, b) -> Integer.compare(ids.getInt(a << 2), ids.getInt(b << 2));
+        RowOrder ascending = switch (order) {
+            case ID -> byId;
+            case LAST_NAME -> (a, b) -> {
+                int c = names.compare(lastNames.getInt(a << 2), lastNames.getInt(b << 2));
+                return c != 0 ? c : byId.compare(a, b);
+            };
+            case AVERAGE -> (a, b) -> {
+                int c = Double.compare(average(a), average(b));
+                return c != 0 ? c : byId.compare(a, b);
+            };
+        };
+        return descending ? (a, b) -> ascending.compare(b, a) : ascending;
+    }
+
+    // The first k rows in the given order among those that pass the filter. A
+    // heap holds the best k seen so far, so a short page costs one pass over
+    // the columns and no sort of the whole group.
+    private int[] first(int k, IntPredicate filter, RowOrder order) {
+        int[] heap = new int[Math.min(k, size)];
+        int n = 0;
+        for (int row = 0; row < size; row++) {
+            if (!filter.test(row)) continue;
+            if (n < heap.length) {
+                heap[n] = row;
+                siftUp(heap, n++, order);
+            } else if (n > 0 && order.compare(row, heap[0]) < 0) {
+                heap[0] = row;
+                siftDown(heap, 0, n, order);
+            }
+        }
+        // the heap keeps its greatest row on top; moving that to the back in turn sorts it
+        for (int end = n - 1; end > 0; end--) {
+            int top = heap[0];
+            heap[0] = heap[end];
+            heap[end] = top;
+            siftDown(heap, 0, end, order);
+        }
+        return n == heap.length ? heap : Arrays.copyOf(heap, n);
+    }
+
+    private static void siftUp(int[] heap, int i, RowOrder order) {
+        int row = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (order.compare(row, heap[parent]) <= 0) break;
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = row;
+    }
+
+    private static void siftDown(int[] heap, int i, int n, RowOrder order) {
+        int row = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= n) break;
+            if (child + 1 < n && order.compare(heap[child + 1], heap[child]) > 0) child++;
+            if (order.compare(heap[child], row) <= 0) break;
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = row;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,172 @@
+package project;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// The roster in a ColumnarRoster, queried there in place, in front of an SQLite
+// file that keeps it across restarts. Saves reach the columns only once SQLite
+// has committed them. The columns are filled from SQLite, or from its snapshot,
+// when the engine is opened, and the snapshot is written from them on close.
+class ColumnarStorage implements StorageEngine, StoredRoster {
+    private final SqliteStorage backing;
+    private final ColumnarRoster roster;
+
+    public ColumnarStorage(String dbName, boolean offHeap) throws IOException {
+        backing = new SqliteStorage(dbName, false);
+        roster = new ColumnarRoster(offHeap);
+        try {
+            backing.load(roster::add, null);
+        } catch (IOException | RuntimeException e) {
+            backing.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String describe() {
+        return (roster.isOffHeap() ? "Columns (off-heap) over " : "Columns over ") + backing.describe();
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return true;
+    }
+
+    @Override
+    public StoredRoster storedRoster() {
+        return this;
+    }
+
+    @Override
+    public void load(Consumer<Student> sink, GradeLoader lazyGrades) {
+        for (int row = 0; row < roster.size(); row++) {
+            sink.accept(roster.student(row, lazyGrades));
+        }
+    }
+
+    @Override
+    public void loadGrades(Student student) throws IOException {
+        int row = roster.rowOf(student.getId());
+        if (row < 0) throw new IOException("Student " + student.getId() + " is not stored");
+        student.setLoadedGrades(roster.grades(row), roster.gradeCount(row));
+    }
+
+    @Override
+    public void scanGrades(int[] ids, GradeSink sink) {
+        for (int id : ids) {
+            int row = roster.rowOf(id);
+            if (row >= 0 && roster.gradeCount(row) > 0) {
+                sink.grades(id, roster.grades(row), roster.gradeCount(row));
+            }
+        }
+    }
+
+    @Override
+    public void save(List<StudentRow> upserts, Collection<Integer> deletes) throws IOException {
+        for (StudentRow row : upserts) {
+            if (!ColumnarRoster.fits(row.birthYear())) {
+                throw new IOException("Birth year " + row.birthYear() + " of student " + row.id() + " is out of range");
+            }
+        }
+        backing.save(upserts, deletes);
+        for (int id : deletes) {
+            roster.remove(id);
+        }
+        for (StudentRow row : upserts) {
+            roster.put(row);
+        }
+    }
+
+    @Override
+    public int[] select(StudentQuery query) {
+        int[] rows = roster.select(query);
+        int[] ids = new int[rows.length];
+        for (int i = 0; i < rows.length; i++) {
+            ids[i] = roster.id(rows[i]);
+        }
+        return ids;
+    }
+
+    @Override
+    public Map<StudentGroup, long[]> countGrades() {
+        Map<StudentGroup, long[]> counts = new EnumMap<>(StudentGroup.class);
+        for (StudentGroup group : StudentGroup.values()) {
+            counts.put(group, roster.gradeCounts(group));
+        }
+        return counts;
+    }
+
+    @Override
+    public int maxId(StudentGroup group) {
+        return roster.maxId(group);
+    }
+
+    @Override
+    public Student fetch(int id, GradeLoader grades) {
+        int row = roster.rowOf(id);
+        return row < 0 ? null : roster.student(row, grades);
+    }
+
+    @Override
+    public int count(StudentGroup group) {
+        return roster.size(group);
+    }
+
+    @Override
+    public double averageOfAverages(StudentGroup group) {
+        return roster.averageOfAverages(group);
+    }
+
+    @Override
+    public List<Student> sorted(StudentGroup group, StudentOrder order, boolean descending, int offset, int limit,
+                                GradeLoader grades) {
+        return roster.students(roster.sorted(group, order, descending, offset, limit), grades);
+    }
+
+    @Override
+    public List<Student> page(int afterId, int limit, GradeLoader grades) {
+        return roster.students(roster.page(afterId, limit), grades);
+    }
+
+    @Override
+    public List<Student> averageRange(StudentGroup group, double min, double max, GradeLoader grades) {
+        return roster.students(roster.averageRange(group, min, max), grades);
+    }
+
+    @Override
+    public List<Student> idRange(StudentGroup group, int from, int to, GradeLoader grades) {
+        return roster.students(roster.idRange(group, from, to), grades);
+    }
+
+    @Override
+    public List<Student> lastNamePrefix(StudentGroup group, String prefix, GradeLoader grades) {
+        return roster.students(roster.lastNamePrefix(group, prefix), grades);
+    }
+
+    // Every filter runs on the columns, so the limit always applies.
+    @Override
+    public List<Student> select(StudentQuery query, GradeLoader grades) {
+        return roster.students(roster.select(query), grades);
+    }
+
+    // A stored roster leaves StudentDatabase with no students of its own to
+    // pass in, so the snapshot is written from the columns instead.
+    @Override
+    public void checkpoint(Collection<Student> roster) throws IOException {
+        backing.checkpoint(this.roster.asList());
+    }
+
+    @Override
+    public void close() {
+        backing.close();
+    }
+}
\ No newline at end of file
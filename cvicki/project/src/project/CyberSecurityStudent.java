@@ -1,25 +1,30 @@
 package project;
 
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
-
 class CyberSecurityStudent extends Student {
+    private transient volatile NameHasher.Entry nameHash;
+
     public CyberSecurityStudent(int id, String firstName, String lastName, int birthYear) {
         super(id, firstName, lastName, birthYear);
     }
 
     @Override
-    public void performSkill() {
-        try {
-            MessageDigest md = MessageDigest.getInstance("SHA-256");
-            byte[] hash = md.digest((firstName + lastName).getBytes());
-            StringBuilder hexString = new StringBuilder();
-            for (byte b : hash) {
-                hexString.append(String.format("%02x", b));
-            }
-            System.out.println("SHA-256 hash: " + hexString);
-        } catch (NoSuchAlgorithmException e) {
-            System.out.println("Hash error");
+    public StudentGroup getGroup() {
+        return StudentGroup.CYBER_SECURITY;
+    }
+
+    String getNameHash() {
+        String first = firstName;
+        String last = lastName;
+        NameHasher.Entry cached = nameHash;
+        if (cached == null || !cached.matches(first, last)) {
+            cached = new NameHasher.Entry(first, last, NameHasher.sha256Hex(first + last));
+            nameHash = cached;
         }
+        return cached.hex();
+    }
+
+    @Override
+    public void performSkill() {
+        System.out.println("SHA-256 hash: " + getNameHash());
     }
 }
\ No newline at end of file
@@ -0,0 +1,53 @@
+package project;
+
+import java.util.Arrays;
+
+// Counts over the slots 0..size-1 with O(log n) updates, prefix sums and rank
+// lookups.
+class FenwickTree {
+    private final long[] tree;
+
+    public FenwickTree(int size) {
+        tree = new long[size + 1];
+    }
+
+    public int size() {
+        return tree.length - 1;
+    }
+
+    public void add(int slot, long delta) {
+        for (int i = slot + 1; i < tree.length; i += i & -i) {
+            tree[i] += delta;
+        }
+    }
+
+    // Sum of slots 0..slot-1.
+    public long sumBelow(int slot) {
+        long sum = 0;
+        for (int i = Math.min(slot, size()); i > 0; i -= i & -i) {
+            sum += tree[i];
+        }
+        return sum;
+    }
+
+    public long total() {
+        return sumBelow(size());
+    }
+
+    // Lowest slot whose running sum reaches rank (1-based), or size() if none does.
+    public int slotOfRank(long rank) {
+        int pos = 0;
+        for (int step = Integer.highestOneBit(size()); step > 0; step >>= 1) {
+            int next = pos + step;
+            if (next < tree.length && tree[next] < rank) {
+                pos = next;
+                rank -= tree[next];
+            }
+        }
+        return pos;
+    }
+
+    public void clear() {
+        Arrays.fill(tree, 0);
+    }
+}
\ No newline at end of file
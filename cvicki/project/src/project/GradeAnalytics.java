@@ -0,0 +1,87 @@
+package project;
+
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+
+// Grade distributions per group and for the whole school. Updated under the
+// student's lock, like GroupStats.
+class GradeAnalytics {
+    private static final int BAR_WIDTH = 40;
+
+    private final Map<StudentGroup, GradeDistribution> groups = new EnumMap<>(StudentGroup.class);
+    private final GradeDistribution school = new GradeDistribution();
+
+    public GradeAnalytics() {
+        for (StudentGroup group : StudentGroup.values()) {
+            groups.put(group, new GradeDistribution());
+        }
+    }
+
+    public GradeDistribution get(StudentGroup group) {
+        return groups.get(group);
+    }
+
+    public GradeDistribution getSchool() {
+        return school;
+    }
+
+    void studentAdded(Student student, boolean countGrades) {
+        groups.get(student.getGroup()).studentAdded(student, countGrades);
+        school.studentAdded(student, countGrades);
+    }
+
+    void studentRemoved(Student student) {
+        groups.get(student.getGroup()).studentRemoved(student);
+        school.studentRemoved(student);
+    }
+
+    void gradeAdded(Student student, int grade) {
+        groups.get(student.getGroup()).gradeAdded(student, grade);
+        school.gradeAdded(student, grade);
+    }
+
+    // Grades counted by the storage engine for students whose grades are not loaded.
+    void addGradeCounts(Map<StudentGroup, long[]> counts) {
+        counts.forEach((group, perGrade) -> {
+            groups.get(group).addGradeCounts(perGrade);
+            school.addGradeCounts(perGrade);
+        });
+    }
+
+    void clear() {
+        groups.values().forEach(GradeDistribution::clear);
+        school.clear();
+    }
+
+    public String report() {
+        StringBuilder out = new StringBuilder(2048);
+        for (StudentGroup group : StudentGroup.values()) {
+            appendReport(out, group.getLabel(), groups.get(group));
+        }
+        appendReport(out, "Whole school", school);
+        return out.toString();
+    }
+
+    private static void appendReport(StringBuilder out, String title, GradeDistribution d) {
+        String nl = System.lineSeparator();
+        out.append(nl).append(title).append(':').append(nl);
+        out.append(String.format(Locale.ROOT, "  students %d (%d graded), grades %d%n",
+                d.getStudentCount(), d.getGradedStudentCount(), d.getGradeCount()));
+        if (d.getGradeCount() == 0) return;
+        out.append(String.format(Locale.ROOT, "  mean %.2f, std dev %.2f, median %.1f, mode %d%n",
+                d.getMean(), d.getStandardDeviation(), d.getMedian(), d.getMode()));
+        out.append(String.format(Locale.ROOT, "  grade p10 %d, p25 %d, p75 %d, p90 %d%n",
+                d.getPercentile(10), d.getPercentile(25), d.getPercentile(75), d.getPercentile(90)));
+        out.append(String.format(Locale.ROOT, "  student average p10 %.2f, median %.2f, p90 %.2f%n",
+                d.getAveragePercentile(10), d.getAveragePercentile(50), d.getAveragePercentile(90)));
+
+        long[] histogram = d.getHistogram();
+        long most = 0;
+        for (long count : histogram) most = Math.max(most, count);
+        for (int grade = GradeDistribution.MIN_GRADE; grade <= GradeDistribution.MAX_GRADE; grade++) {
+            int bar = most == 0 ? 0 : (int) Math.round((double) histogram[grade] * BAR_WIDTH / most);
+            out.append(String.format(Locale.ROOT, "  %d | %-" + BAR_WIDTH + "s %d%n", grade, "#".repeat(bar), histogram[grade]));
+        }
+    }
+}
\ No newline at end of file
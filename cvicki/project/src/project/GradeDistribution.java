@@ -0,0 +1,156 @@
+package project;
+
+import java.util.Arrays;
+
+// Exact grade statistics for one group or the whole school, kept up to date as
+// grades arrive. Grades only run from 1 to 5, so every grade is a count in one
+// of five bins. Student averages, floored to hundredths, go into a Fenwick tree
+// so "how many are below X" and average percentiles take O(log n).
+class GradeDistribution {
+    static final int MIN_GRADE = 1;
+    static final int MAX_GRADE = 5;
+    private static final int AVERAGE_SLOTS = MAX_GRADE * 100 + 1;
+
+    private final long[] grades = new long[MAX_GRADE + 1];
+    private final FenwickTree averages = new FenwickTree(AVERAGE_SLOTS);
+    private int students;
+
+    // floor(100 * sum / count), so "average < x" for x with two decimals is
+    // exactly "slot < 100 * x".
+    private static int slot(int count, int sum) {
+        return (int) (100L * sum / count);
+    }
+
+    synchronized void studentAdded(Student student, boolean countGrades) {
+        students++;
+        int count = student.getGradeCount();
+        if (count > 0) averages.add(slot(count, student.getGradeSum()), 1);
+        if (countGrades) {
+            for (int grade : student.getGrades()) grades[grade]++;
+        }
+    }
+
+    // The student's grades must already be loaded.
+    synchronized void studentRemoved(Student student) {
+        students--;
+        int count = student.getGradeCount();
+        if (count > 0) averages.add(slot(count, student.getGradeSum()), -1);
+        for (int grade : student.getGrades()) grades[grade]--;
+    }
+
+    synchronized void gradeAdded(Student student, int grade) {
+        int count = student.getGradeCount();
+        int sum = student.getGradeSum();
+        if (count > 1) averages.add(slot(count - 1, sum - grade), -1);
+        averages.add(slot(count, sum), 1);
+        grades[grade]++;
+    }
+
+    synchronized void addGradeCounts(long[] counts) {
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            grades[grade] += counts[grade];
+        }
+    }
+
+    synchronized void clear() {
+        Arrays.fill(grades, 0);
+        averages.clear();
+        students = 0;
+    }
+
+    public synchronized int getStudentCount() {
+        return students;
+    }
+
+    public synchronized long getGradedStudentCount() {
+        return averages.total();
+    }
+
+    public synchronized long getGradeCount() {
+        long total = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) total += grades[grade];
+        return total;
+    }
+
+    // Number of times each grade was given, indexed by grade (index 0 is unused).
+    public synchronized long[] getHistogram() {
+        return grades.clone();
+    }
+
+    public synchronized double getMean() {
+        long count = 0;
+        long sum = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            count += grades[grade];
+            sum += grades[grade] * grade;
+        }
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    // Population standard deviation of all grades.
+    public synchronized double getStandardDeviation() {
+        long count = 0;
+        long sum = 0;
+        long squares = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            count += grades[grade];
+            sum += grades[grade] * grade;
+            squares += grades[grade] * grade * grade;
+        }
+        if (count == 0) return 0.0;
+        double mean = (double) sum / count;
+        return Math.sqrt(Math.max(0.0, (double) squares / count - mean * mean));
+    }
+
+    // Nearest-rank percentile of all grades; 0 when there are none.
+    public synchronized int getPercentile(double percentile) {
+        long count = getGradeCount();
+        if (count == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            seen += grades[grade];
+            if (seen >= rank) return grade;
+        }
+        return MAX_GRADE;
+    }
+
+    public synchronized double getMedian() {
+        long count = getGradeCount();
+        if (count == 0) return 0.0;
+        if (count % 2 == 1) return gradeAtRank((count + 1) / 2);
+        return (gradeAtRank(count / 2) + gradeAtRank(count / 2 + 1)) / 2.0;
+    }
+
+    private int gradeAtRank(long rank) {
+        long seen = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            seen += grades[grade];
+            if (seen >= rank) return grade;
+        }
+        return MAX_GRADE;
+    }
+
+    // Most frequent grade, the lower one on a tie; 0 when there are none.
+    public synchronized int getMode() {
+        int mode = 0;
+        for (int grade = MIN_GRADE; grade <= MAX_GRADE; grade++) {
+            if (grades[grade] > 0 && (mode == 0 || grades[grade] > grades[mode])) mode = grade;
+        }
+        return mode;
+    }
+
+    // Graded students whose average is strictly below the given one; averages
+    // are compared to two decimals.
+    public synchronized long countAverageBelow(double average) {
+        return averages.sumBelow((int) Math.ceil(Math.max(0.0, average) * 100 - 1e-9));
+    }
+
+    // Nearest-rank percentile of student averages, floored to hundredths.
+    public synchronized double getAveragePercentile(double percentile) {
+        long count = averages.total();
+        if (count == 0) return 0.0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        return averages.slotOfRank(rank) / 100.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package project;
+
+interface GradeLoader {
+    void loadGrades(Student student);
+}
\ No newline at end of file
@@ -0,0 +1,6 @@
+package project;
+
+// Receives the grades of one student; the array may be reused once the call returns.
+interface GradeSink {
+    void grades(int id, byte[] grades, int count);
+}
\ No newline at end of file
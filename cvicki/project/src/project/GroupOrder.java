@@ -0,0 +1,154 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+// Sorted views of one group, kept up to date as students and grades change so
+// listings walk a tree instead of sorting the roster. Like GroupStats this is
+// updated under the student's lock. The trees are built from the index on the
+// first query rather than at load, which would cost seconds on a large roster.
+class GroupOrder {
+    private record NameKey(String lastName, int id) implements Comparable<NameKey> {
+        public int compareTo(NameKey o) {
+            int c = lastName.compareTo(o.lastName);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+
+    private record AverageKey(double average, int id) implements Comparable<AverageKey> {
+        public int compareTo(AverageKey o) {
+            int c = Double.compare(average, o.average);
+            return c != 0 ? c : Integer.compare(id, o.id);
+        }
+    }
+
+    private final TreeMap<NameKey, Student> byLastName = new TreeMap<>();
+    private final TreeMap<Integer, Student> byId = new TreeMap<>();
+    private final TreeMap<AverageKey, Student> byAverage = new TreeMap<>();
+    private final StudentIndex index;
+    private final StudentGroup group;
+    private boolean built;
+
+    public GroupOrder(StudentIndex index, StudentGroup group) {
+        this.index = index;
+        this.group = group;
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        built = true;
+        index.forEach(student -> {
+            if (student.getGroup() == group) studentAdded(student);
+        });
+    }
+
+    synchronized void studentAdded(Student student) {
+        if (!built) return;
+        int id = student.getId();
+        byLastName.put(new NameKey(student.getLastName(), id), student);
+        byId.put(id, student);
+        byAverage.put(new AverageKey(student.getAverageGrade(), id), student);
+    }
+
+    synchronized void studentRemoved(Student student) {
+        if (!built) return;
+        int id = student.getId();
+        byLastName.remove(new NameKey(student.getLastName(), id));
+        byId.remove(id);
+        byAverage.remove(new AverageKey(student.getAverageGrade(), id));
+    }
+
+    // The student's entry is still filed under the average it had before this grade.
+    synchronized void gradeAdded(Student student, int grade) {
+        if (!built) return;
+        int grades = student.getGradeCount();
+        double previous = grades == 1 ? 0.0 : (double) (student.getGradeSum() - grade) / (grades - 1);
+        if (byAverage.remove(new AverageKey(previous, student.getId())) != null) {
+            byAverage.put(new AverageKey(student.getAverageGrade(), student.getId()), student);
+        }
+    }
+
+    synchronized void clear() {
+        byLastName.clear();
+        byId.clear();
+        byAverage.clear();
+        built = false;
+    }
+
+    synchronized int size() {
+        ensureBuilt();
+        return byId.size();
+    }
+
+    synchronized List<Student> sorted(StudentOrder order, boolean descending) {
+        ensureBuilt();
+        return new ArrayList<>(view(order, descending));
+    }
+
+    // One page of a sorted listing; walks only as far as the page end.
+    synchronized List<Student> slice(StudentOrder order, boolean descending, int offset, int limit) {
+        ensureBuilt();
+        List<Student> result = new ArrayList<>(Math.max(0, Math.min(limit, byId.size() - offset)));
+        int index = 0;
+        for (Student student : view(order, descending)) {
+            if (index++ < offset) continue;
+            if (result.size() == limit) break;
+            result.add(student);
+        }
+        return result;
+    }
+
+    private Collection<Student> view(StudentOrder order, boolean descending) {
+        NavigableMap<?, Student> map = switch (order) {
+            case LAST_NAME -> byLastName;
+            case ID -> byId;
+            case AVERAGE -> byAverage;
+        };
+        return descending ? map.descendingMap().values() : map.values();
+    }
+
+    synchronized List<Student> top(int k) {
+        ensureBuilt();
+        return first(byAverage.descendingMap().values(), k);
+    }
+
+    synchronized List<Student> bottom(int k) {
+        ensureBuilt();
+        return first(byAverage.values(), k);
+    }
+
+    synchronized List<Student> averageRange(double min, double max) {
+        ensureBuilt();
+        return new ArrayList<>(byAverage.subMap(
+            new AverageKey(min, Integer.MIN_VALUE), true, new AverageKey(max, Integer.MAX_VALUE), true).values());
+    }
+
+    synchronized List<Student> idRange(int from, int to) {
+        ensureBuilt();
+        return new ArrayList<>(byId.subMap(from, true, to, true).values());
+    }
+
+    // Last names starting with the given prefix, in alphabetical order.
+    synchronized List<Student> lastNamePrefix(String prefix) {
+        ensureBuilt();
+        NavigableMap<NameKey, Student> tail = byLastName.tailMap(new NameKey(prefix, Integer.MIN_VALUE), true);
+        List<Student> result = new ArrayList<>();
+        for (Student student : tail.values()) {
+            if (!student.getLastName().startsWith(prefix)) break;
+            result.add(student);
+        }
+        return result;
+    }
+
+    private static List<Student> first(Collection<Student> values, int k) {
+        List<Student> result = new ArrayList<>(Math.min(k, values.size()));
+        for (Student student : values) {
+            if (result.size() == k) break;
+            result.add(student);
+        }
+        return result;
+    }
+}
\ No newline at end of file
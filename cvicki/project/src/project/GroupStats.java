@@ -0,0 +1,53 @@
+package project;
+
+class GroupStats {
+    private int count;
+    private int gradedCount;
+    private double averageSum;
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized int getGradedCount() {
+        return gradedCount;
+    }
+
+    public synchronized double getAverage() {
+        return gradedCount > 0 ? averageSum / gradedCount : 0.0;
+    }
+
+    synchronized void studentAdded(Student student) {
+        count++;
+        if (student.getGradeCount() > 0) {
+            gradedCount++;
+            averageSum += student.getAverageGrade();
+        }
+    }
+
+    synchronized void studentRemoved(Student student) {
+        count--;
+        if (student.getGradeCount() > 0) {
+            gradedCount--;
+            averageSum -= student.getAverageGrade();
+        }
+        if (gradedCount == 0) averageSum = 0.0;
+    }
+
+    synchronized void gradeAdded(Student student, int grade) {
+        int grades = student.getGradeCount();
+        if (grades == 1) {
+            gradedCount++;
+            averageSum += student.getAverageGrade();
+        } else {
+            double previous = (double) (student.getGradeSum() - grade) / (grades - 1);
+            averageSum += student.getAverageGrade() - previous;
+        }
+    }
+
+    synchronized void clear() {
+        count = 0;
+        gradedCount = 0;
+        averageSum = 0.0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,135 @@
+package project;
+
+import java.util.Arrays;
+
+class IntIntMap {
+    private static final int FREE_KEY = 0;
+
+    private int[] keys;
+    private int[] values;
+    private int mask;
+    private int size;
+    private boolean hasFreeKey;
+    private int freeKeyValue;
+
+    public IntIntMap() {
+        this(16);
+    }
+
+    public IntIntMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(4, expectedSize * 2 - 1)) << 1;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int get(int key, int missingValue) {
+        if (key == FREE_KEY) return hasFreeKey ? freeKeyValue : missingValue;
+
+        int slot = slot(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) return values[slot];
+            if (k == FREE_KEY) return missingValue;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public void put(int key, int value) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) size++;
+            hasFreeKey = true;
+            freeKeyValue = value;
+            return;
+        }
+
+        int slot = slot(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == key) {
+                values[slot] = value;
+                return;
+            }
+            if (k == FREE_KEY) {
+                keys[slot] = key;
+                values[slot] = value;
+                if (++size * 2 > keys.length) resize(keys.length << 1);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public int remove(int key, int missingValue) {
+        if (key == FREE_KEY) {
+            if (!hasFreeKey) return missingValue;
+            hasFreeKey = false;
+            size--;
+            return freeKeyValue;
+        }
+
+        int slot = slot(key);
+        while (true) {
+            int k = keys[slot];
+            if (k == FREE_KEY) return missingValue;
+            if (k == key) break;
+            slot = (slot + 1) & mask;
+        }
+
+        int removed = values[slot];
+        size--;
+
+        // Backward-shift deletion keeps probe chains intact without tombstones.
+        int last = slot;
+        slot = (slot + 1) & mask;
+        while (true) {
+            int k = keys[slot];
+            if (k == FREE_KEY) {
+                keys[last] = FREE_KEY;
+                return removed;
+            }
+            int ideal = slot(k);
+            boolean movable = last <= slot
+                    ? (ideal <= last || ideal > slot)
+                    : (ideal <= last && ideal > slot);
+            if (movable) {
+                keys[last] = k;
+                values[last] = values[slot];
+                last = slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    public void clear() {
+        Arrays.fill(keys, FREE_KEY);
+        hasFreeKey = false;
+        size = 0;
+    }
+
+    private int slot(int key) {
+        int h = key * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new int[capacity];
+        values = new int[capacity];
+        mask = capacity - 1;
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            int k = oldKeys[i];
+            if (k == FREE_KEY) continue;
+            int slot = slot(k);
+            while (keys[slot] != FREE_KEY) slot = (slot + 1) & mask;
+            keys[slot] = k;
+            values[slot] = oldValues[i];
+        }
+    }
+}
\ No newline at end of file
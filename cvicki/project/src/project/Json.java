@@ -0,0 +1,205 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+final class Json {
+    private Json() {
+    }
+
+    static String quote(String value) {
+        StringBuilder sb = new StringBuilder(value.length() + 2);
+        appendQuoted(sb, value);
+        return sb.toString();
+    }
+
+    static void appendQuoted(StringBuilder sb, String value) {
+        sb.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> sb.append("\\\"");
+                case '\\' -> sb.append("\\\\");
+                case '\n' -> sb.append("\\n");
+                case '\r' -> sb.append("\\r");
+                case '\t' -> sb.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        sb.append(c);
+                    }
+                }
+            }
+        }
+        sb.append('"');
+    }
+
+    static void appendStudent(StringBuilder sb, Student s) {
+        sb.append("{\"id\":").append(s.getId())
+          .append(",\"group\":\"").append(s.getGroup().getLabel()).append('"')
+          .append(",\"firstName\":");
+        appendQuoted(sb, s.getFirstName());
+        sb.append(",\"lastName\":");
+        appendQuoted(sb, s.getLastName());
+        sb.append(",\"birthYear\":").append(s.getBirthYear())
+          .append(",\"average\":").append(s.getAverageGrade())
+          .append(",\"grades\":[");
+        int[] grades = s.getGrades();
+        for (int i = 0; i < grades.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(grades[i]);
+        }
+        sb.append("]}");
+    }
+
+    // Parses a JSON document into Map, List, String, Double, Boolean or null.
+    static Object parse(String text) {
+        Parser parser = new Parser(text);
+        Object value = parser.value();
+        parser.skipWhitespace();
+        if (parser.pos != text.length()) throw parser.error("unexpected trailing content");
+        return value;
+    }
+
+    @SuppressWarnings("unchecked")
+    static Map<String, Object> parseObject(String text) {
+        Object value = parse(text);
+        if (!(value instanceof Map)) throw new IllegalArgumentException("expected a JSON object");
+        return (Map<String, Object>) value;
+    }
+
+    private static final class Parser {
+        private final String text;
+        private int pos;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        Object value() {
+            skipWhitespace();
+            if (pos >= text.length()) throw error("unexpected end of input");
+            char c = text.charAt(pos);
+            return switch (c) {
+                case '{' -> object();
+                case '[' -> array();
+                case '"' -> string();
+                case 't' -> literal("true", Boolean.TRUE);
+                case 'f' -> literal("false", Boolean.FALSE);
+                case 'n' -> literal("null", null);
+                default -> number();
+            };
+        }
+
+        private Map<String, Object> object() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == '}') {
+                pos++;
+                return map;
+            }
+            while (true) {
+                skipWhitespace();
+                if (peek() != '"') throw error("expected a field name");
+                String key = string();
+                skipWhitespace();
+                expect(':');
+                map.put(key, value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect('}');
+                    return map;
+                }
+            }
+        }
+
+        private List<Object> array() {
+            List<Object> list = new ArrayList<>();
+            pos++;
+            skipWhitespace();
+            if (peek() == ']') {
+                pos++;
+                return list;
+            }
+            while (true) {
+                list.add(value());
+                skipWhitespace();
+                if (peek() == ',') {
+                    pos++;
+                } else {
+                    expect(']');
+                    return list;
+                }
+            }
+        }
+
+        private String string() {
+            StringBuilder sb = new StringBuilder();
+            pos++;
+            while (pos < text.length()) {
+                char c = text.charAt(pos++);
+                if (c == '"') return sb.toString();
+                if (c != '\\') {
+                    sb.append(c);
+                    continue;
+                }
+                if (pos >= text.length()) break;
+                char escaped = text.charAt(pos++);
+                switch (escaped) {
+                    case 'n' -> sb.append('\n');
+                    case 'r' -> sb.append('\r');
+                    case 't' -> sb.append('\t');
+                    case 'b' -> sb.append('\b');
+                    case 'f' -> sb.append('\f');
+                    case 'u' -> {
+                        if (pos + 4 > text.length()) throw error("bad unicode escape");
+                        sb.append((char) Integer.parseInt(text.substring(pos, pos + 4), 16));
+                        pos += 4;
+                    }
+                    default -> sb.append(escaped);
+                }
+            }
+            throw error("unterminated string");
+        }
+
+        private Double number() {
+            int start = pos;
+            while (pos < text.length() && "+-0123456789.eE".indexOf(text.charAt(pos)) >= 0) pos++;
+            if (start == pos) throw error("unexpected character '" + text.charAt(pos) + "'");
+            try {
+                return Double.valueOf(text.substring(start, pos));
+            } catch (NumberFormatException e) {
+                throw error("bad number");
+            }
+        }
+
+        private Object literal(String word, Object value) {
+            if (!text.startsWith(word, pos)) throw error("unexpected token");
+            pos += word.length();
+            return value;
+        }
+
+        private char peek() {
+            return pos < text.length() ? text.charAt(pos) : 0;
+        }
+
+        private void expect(char c) {
+            if (peek() != c) throw error("expected '" + c + "'");
+            pos++;
+        }
+
+        void skipWhitespace() {
+            while (pos < text.length() && Character.isWhitespace(text.charAt(pos))) pos++;
+        }
+
+        IllegalArgumentException error(String message) {
+            return new IllegalArgumentException("Invalid JSON at " + pos + ": " + message);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,36 @@
+package project;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Students of a lazy roster whose grades are in memory, least recently loaded
+// or saved first. Past the limit the oldest go back to loading their grades on
+// demand; one with unsaved grades keeps them and comes back here once saved.
+// Used under the database's storage lock, so no save is between writing a
+// student's grades and marking them saved while a student is released.
+class LoadedGrades {
+    private final Map<Integer, Student> students = new LinkedHashMap<>(16, 0.75f, true);
+    private final int limit;
+    private final GradeLoader loader;
+
+    LoadedGrades(int limit, GradeLoader loader) {
+        this.limit = limit;
+        this.loader = loader;
+    }
+
+    public void touched(Student student) {
+        if (student.getGradeCount() == 0) return;
+        students.put(student.getId(), student);
+        Iterator<Student> eldest = students.values().iterator();
+        while (students.size() > limit) {
+            Student released = eldest.next();
+            eldest.remove();
+            released.releaseGrades(loader);
+        }
+    }
+
+    public int size() {
+        return students.size();
+    }
+}
\ No newline at end of file
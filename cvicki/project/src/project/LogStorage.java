@@ -0,0 +1,270 @@
+package project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// The roster as an append-only file of StudentRecordCodec records. Each save
+// appends one batch and forces it to disk; load replays the file. When most of
+// the file is superseded records it is rewritten with one record per student.
+// A record that fails its length or checksum test with nothing intact after it
+// is an unfinished write and is cut off; one with intact records after it is
+// damage, and the log is not loaded.
+class LogStorage implements StorageEngine {
+    private static final byte[] MAGIC = "STULOG\u0000\u0002".getBytes(StandardCharsets.ISO_8859_1);
+    // records without checksums; such a log is rewritten in the current format when loaded
+    private static final byte[] LEGACY_MAGIC = "STULOG\u0000\u0001".getBytes(StandardCharsets.ISO_8859_1);
+    private static final int READ_BUFFER = 1 << 20;
+    private static final long COMPACT_MIN_BYTES = 1 << 20;
+
+    private static final class Entry {
+        StudentGroup group;
+        String firstName;
+        String lastName;
+        int birthYear;
+        byte[] grades = new byte[0];
+        int gradeCount;
+    }
+
+    private final Path file;
+    private final StudentRecordCodec codec = new StudentRecordCodec(64 * 1024);
+    private FileChannel channel;
+    private boolean legacy;
+
+    public LogStorage(String path) throws IOException {
+        this.file = Path.of(path);
+        this.channel = open(file);
+    }
+
+    private FileChannel open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(MAGIC), 0);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+                channel.read(header, 0);
+                legacy = Arrays.equals(header.array(), LEGACY_MAGIC);
+                if (!legacy && !Arrays.equals(header.array(), MAGIC)) {
+                    throw new IOException(file + " is not a student log");
+                }
+            }
+            return channel;
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public String describe() {
+        return "append log " + file;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return false;
+    }
+
+    @Override
+    public void load(Consumer<Student> sink, GradeLoader lazyGrades) throws IOException {
+        Map<Integer, Entry> entries = new HashMap<>();
+        StudentRecordCodec.Visitor replay = new StudentRecordCodec.Visitor() {
+            @Override
+            public void upsert(StudentRow row) {
+                Entry entry = entries.computeIfAbsent(row.id(), id -> new Entry());
+                entry.group = row.group();
+                entry.firstName = row.firstName();
+                entry.lastName = row.lastName();
+                entry.birthYear = row.birthYear();
+                byte[] added = row.newGrades();
+                int end = row.firstNewGrade() + added.length;
+                if (end > entry.grades.length) {
+                    entry.grades = Arrays.copyOf(entry.grades, Math.max(end, entry.grades.length * 2));
+                }
+                System.arraycopy(added, 0, entry.grades, row.firstNewGrade(), added.length);
+                entry.gradeCount = row.gradeCount();
+            }
+
+            @Override
+            public void delete(int id) {
+                entries.remove(id);
+            }
+        };
+
+        long end = replay(replay);
+        if (end < channel.size()) {
+            // whatever stopped the replay, it is a torn tail only if nothing intact follows it
+            if (!legacy && intactRecordAfter(end)) {
+                throw new IOException(file + ": the record at offset " + end + " is corrupt and intact records follow it");
+            }
+            System.out.println("Discarding " + (channel.size() - end) + " bytes of an unfinished write at the end of " + file);
+            channel.truncate(end);
+        }
+
+        long liveBytes = 0;
+        for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+            Entry entry = e.getValue();
+            Student student = entry.group == StudentGroup.TELECOM
+                ? new TelecomStudent(e.getKey(), entry.firstName, entry.lastName, entry.birthYear)
+                : new CyberSecurityStudent(e.getKey(), entry.firstName, entry.lastName, entry.birthYear);
+            student.setLoadedGrades(entry.grades, entry.gradeCount);
+            student.savedGradeCount = entry.gradeCount;
+            sink.accept(student);
+            liveBytes += 48 + entry.firstName.length() + entry.lastName.length() + entry.gradeCount;
+        }
+
+        if (legacy || end > COMPACT_MIN_BYTES && end > 2 * liveBytes) {
+            compact(entries);
+        }
+    }
+
+    // Replays every complete record and returns the offset just past the last
+    // one; load decides whether what follows is a torn tail.
+    private long replay(StudentRecordCodec.Visitor visitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER);
+        long position = MAGIC.length;
+        long end = position;
+        try {
+            while (true) {
+                int read = channel.read(buffer, position);
+                if (read <= 0) break;
+                position += read;
+                buffer.flip();
+                try {
+                    StudentRecordCodec.decode(buffer, visitor, !legacy);
+                } catch (StudentRecordCodec.BadRecordException e) {
+                    long bad = position - buffer.remaining();
+                    if (legacy) throw new IOException(file + ": the record at offset " + bad + " is corrupt", e);
+                    return bad;
+                }
+                end = position - buffer.remaining();
+                if (buffer.position() == 0 && buffer.limit() == buffer.capacity()) {
+                    // a length reaching past the end of the file is a cut-off write, not a big record
+                    if (end + (legacy ? 4 : 8) + buffer.getInt(0) > channel.size()) return end;
+                    // a single record larger than the buffer
+                    ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                    bigger.put(buffer);
+                    buffer = bigger;
+                } else {
+                    buffer.compact();
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            throw new IOException(file + ": " + e.getMessage(), e);
+        }
+        return end;
+    }
+
+    // Looks for a record that checks out anywhere after the bad one.
+    private boolean intactRecordAfter(long offset) throws IOException {
+        MappedByteBuffer rest = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+            Math.min(channel.size() - offset, Integer.MAX_VALUE));
+        CRC32C crc = new CRC32C();
+        for (int at = 1; at < rest.limit(); at++) {
+            if (StudentRecordCodec.intactAt(rest, at, crc)) return true;
+        }
+        return false;
+    }
+
+    private void compact(Map<Integer, Entry> entries) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(out, ByteBuffer.wrap(MAGIC));
+            codec.clear();
+            for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+                Entry entry = e.getValue();
+                byte[] grades = Arrays.copyOf(entry.grades, entry.gradeCount);
+                int sum = 0;
+                for (byte grade : grades) sum += grade;
+                codec.upsert(new StudentRow(null, e.getKey(), entry.group, entry.firstName, entry.lastName,
+                    entry.birthYear, entry.gradeCount, sum, 0, grades));
+                if (codec.encoded().remaining() >= READ_BUFFER) {
+                    writeFully(out, codec.encoded());
+                    codec.clear();
+                }
+            }
+            writeFully(out, codec.encoded());
+            codec.clear();
+            out.force(true);
+        }
+        channel.close();
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        channel = open(file);
+    }
+
+    @Override
+    public void loadGrades(Student student) {
+    }
+
+    @Override
+    public void save(List<StudentRow> upserts, Collection<Integer> deletes) throws IOException {
+        if (channel == null) throw new IOException(file + " is closed");
+        if (legacy) throw new IOException(file + " is in the old format and is rewritten when loaded");
+
+        codec.clear();
+        for (int id : deletes) {
+            codec.delete(id);
+        }
+        for (StudentRow row : upserts) {
+            codec.upsert(row);
+        }
+
+        long start = channel.size();
+        try {
+            channel.position(start);
+            writeFully(channel, codec.encoded());
+            channel.force(false);
+        } catch (IOException e) {
+            // never leave half a batch in front of the next one
+            try {
+                channel.truncate(start);
+            } catch (IOException ex) {
+                e.addSuppressed(ex);
+            }
+            throw e;
+        } finally {
+            codec.clear();
+        }
+    }
+
+    private static void writeFully(FileChannel out, ByteBuffer data) throws IOException {
+        while (data.hasRemaining()) {
+            out.write(data);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (channel != null) {
+                channel.close();
+            }
+        } catch (IOException e) {
+            System.out.println("Error closing " + file + ": " + e.getMessage());
+        } finally {
+            channel = null;
+        }
+    }
+}
\ No newline at end of file
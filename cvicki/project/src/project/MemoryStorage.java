@@ -0,0 +1,39 @@
+package project;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+// Keeps nothing; the roster lives only in the StudentDatabase indexes.
+class MemoryStorage implements StorageEngine {
+    @Override
+    public String describe() {
+        return "memory (not persisted)";
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return false;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return false;
+    }
+
+    @Override
+    public void load(Consumer<Student> sink, GradeLoader lazyGrades) {
+    }
+
+    @Override
+    public void loadGrades(Student student) {
+    }
+
+    @Override
+    public void save(List<StudentRow> upserts, Collection<Integer> deletes) {
+    }
+
+    @Override
+    public void close() {
+    }
+}
\ No newline at end of file
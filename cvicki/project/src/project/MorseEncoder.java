@@ -0,0 +1,76 @@
+package project;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Morse encoder backed by an ASCII lookup table. Every input character becomes its
+// code followed by a space; characters without a code leave only the space.
+final class MorseEncoder {
+    private static final char[][] CODES = new char[128][];
+    private static final char[] NONE = new char[0];
+    private static final ThreadLocal<MorseEncoder> LOCAL = ThreadLocal.withInitial(MorseEncoder::new);
+
+    static {
+        String[] letters = {
+            ".-", "-...", "-.-.", "-..", ".", "..-.", "--.", "....", "..", ".---", "-.-", ".-..", "--",
+            "-.", "---", ".--.", "--.-", ".-.", "...", "-", "..-", "...-", ".--", "-..-", "-.--", "--.."
+        };
+        Arrays.fill(CODES, NONE);
+        for (int i = 0; i < letters.length; i++) {
+            CODES['A' + i] = letters[i].toCharArray();
+            CODES['a' + i] = CODES['A' + i];
+        }
+        CODES[' '] = new char[] {'/'};
+    }
+
+    private char[] buffer = new char[256];
+    private int length;
+
+    // Encodes with this thread's reusable buffer.
+    static String encode(CharSequence text) {
+        return LOCAL.get().encodeText(text);
+    }
+
+    // Encodes every line in parallel, keeping the input order.
+    static List<String> encodeAll(Stream<String> lines) {
+        return lines.parallel().map(MorseEncoder::encode).collect(Collectors.toList());
+    }
+
+    // Student ID -> Morse encoding of "first last" for every Telecom student.
+    static Map<Integer, String> encodeTelecomStudents(StudentDatabase db) {
+        return db.getAllStudents().parallelStream()
+            .filter(s -> s.getGroup() == StudentGroup.TELECOM)
+            .collect(Collectors.toConcurrentMap(Student::getId,
+                s -> encode(s.getFirstName() + " " + s.getLastName())));
+    }
+
+    String encodeText(CharSequence text) {
+        length = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 128) {
+                append(CODES[c]);
+            } else {
+                // case mapping outside ASCII can still land on a letter (e.g. '\u00df' -> "SS")
+                String upper = String.valueOf(c).toUpperCase();
+                for (int j = 0; j < upper.length(); j++) {
+                    char u = upper.charAt(j);
+                    append(u < 128 ? CODES[u] : NONE);
+                }
+            }
+        }
+        return new String(buffer, 0, length);
+    }
+
+    private void append(char[] code) {
+        if (length + code.length + 1 > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + code.length + 1));
+        }
+        System.arraycopy(code, 0, buffer, length, code.length);
+        length += code.length;
+        buffer[length++] = ' ';
+    }
+}
\ No newline at end of file
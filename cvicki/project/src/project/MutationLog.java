@@ -0,0 +1,699 @@
+package project;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+// Every change to a StudentDatabase as it happens, appended to <database>.journal:
+//   [int length][int CRC32C of body][body], big-endian, after an 8-byte header
+//   body: long sequence, long time (ms, never decreasing), byte type, then
+//     ADDED:       id, group, birthYear, firstName, lastName (int length + UTF-8), grades (int count + one byte each)
+//     GRADE_ADDED: id, index of the grade, grade
+//     REMOVED:     id
+//     CHECKPOINT:  the last sequence storage holds and the offset of the record after it
+//     IMAGE:       nothing; the records of the file before it hold the whole roster
+// Appends only fill a buffer; a sync thread writes and forces whatever has piled
+// up, so one fsync covers every change made while the previous one ran. A crash
+// can lose the changes of the group being written; sync() waits for them.
+//
+// Once a checkpoint leaves more than SEGMENT_BYTES (or -Duniversity.journal.segment
+// bytes) of changes past the file's image, roll() moves the file to <database>.journal.<last sequence> and starts
+// a new one with the records storage does not hold yet. The newest KEEP_SEGMENTS
+// old files are kept for replaying to an earlier time, the rest deleted.
+class MutationLog implements AutoCloseable {
+    static final String JOURNAL_PROPERTY = "university.journal";
+    static final String SEGMENT_PROPERTY = "university.journal.segment";
+    static final byte ADDED = 1;
+    static final byte GRADE_ADDED = 2;
+    static final byte REMOVED = 3;
+    static final byte CHECKPOINT = 4;
+    static final byte IMAGE = 5;
+    private static final byte[] MAGIC = "STUJRN\u0000\u0001".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte TELECOM = 1;
+    private static final byte CYBER_SECURITY = 2;
+    private static final int HEADER = 4 + 4;
+    // sequence, time and type
+    private static final int MIN_BODY = 8 + 8 + 1;
+    private static final int READ_BUFFER = 1 << 20;
+    // Appends wait for the sync thread once this much is waiting to be written.
+    private static final int MAX_BUFFERED = 8 << 20;
+    static final long SEGMENT_BYTES = 64L << 20;
+    static final int KEEP_SEGMENTS = 2;
+
+    interface Visitor {
+        // The student has the ID and grades it had when it was added.
+        void added(long sequence, long time, Student student);
+
+        void gradeAdded(long sequence, long time, int id, int index, int grade);
+
+        void removed(long sequence, long time, int id);
+
+        default void checkpoint(long sequence, long time, Mark saved) {
+        }
+
+        default void image(long sequence, long time) {
+        }
+    }
+
+    // A place in the journal: the last sequence before it and the offset where the next record goes.
+    record Mark(long sequence, long offset) {
+    }
+
+    private final Path file;
+    private final long segmentBytes = Long.getLong(SEGMENT_PROPERTY, SEGMENT_BYTES);
+    private FileChannel channel;
+    private final CRC32C crc = new CRC32C();
+    private final Thread syncer;
+    private ByteBuffer filling = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long sequence;
+    private long lastTime;
+    // Offset past the last appended record, and past the last one written.
+    private long end;
+    private long written;
+    private long durable;
+    // Offset past the IMAGE record of this file, or 0 when it has none.
+    private long imageEnd;
+    private int recordStart;
+    private Mark checkpoint;
+    private IOException failure;
+    private boolean closed;
+
+    public MutationLog(Path file) throws IOException {
+        this.file = file;
+        this.channel = FileChannel.open(file,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            if (channel.size() == 0) {
+                channel.write(ByteBuffer.wrap(MAGIC), 0);
+                channel.force(true);
+            } else {
+                ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+                channel.read(header, 0);
+                if (!Arrays.equals(header.array(), MAGIC)) throw new IOException(file + " is not a student journal");
+            }
+            long[] imageAt = new long[1];
+            end = read(channel, MAGIC.length, new Visitor() {
+                @Override
+                public void added(long seq, long time, Student student) {
+                    seen(seq, time);
+                }
+
+                @Override
+                public void gradeAdded(long seq, long time, int id, int index, int grade) {
+                    seen(seq, time);
+                }
+
+                @Override
+                public void removed(long seq, long time, int id) {
+                    seen(seq, time);
+                }
+
+                @Override
+                public void checkpoint(long seq, long time, Mark saved) {
+                    seen(seq, time);
+                    checkpoint = saved;
+                }
+
+                @Override
+                public void image(long seq, long time) {
+                    seen(seq, time);
+                }
+            }, imageAt);
+            imageEnd = imageAt[0];
+            if (end < channel.size()) {
+                // a bad record is a torn tail only if nothing intact follows it;
+                // cutting off more would lose every change recorded after it
+                if (intactRecordAfter(channel, end)) {
+                    throw new IOException(file + ": the record at offset " + end + " is corrupt and intact records follow it");
+                }
+                System.out.println("Discarding " + (channel.size() - end) + " bytes of an unfinished write at the end of " + file);
+                channel.truncate(end);
+            }
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+        written = end;
+        durable = sequence;
+        syncer = new Thread(this::syncLoop, "student-journal-sync");
+        syncer.setDaemon(true);
+        syncer.start();
+    }
+
+    private void seen(long seq, long time) {
+        sequence = seq;
+        lastTime = time;
+    }
+
+    static Path pathFor(String dbName) {
+        return Path.of(dbName + ".journal");
+    }
+
+    // On unless -Duniversity.journal=false.
+    static boolean configured() {
+        return !"false".equalsIgnoreCase(System.getProperty(JOURNAL_PROPERTY, "true"));
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized boolean isEmpty() {
+        return end == MAGIC.length;
+    }
+
+    // The most recent checkpoint, or null when there has been none.
+    public synchronized Mark lastCheckpoint() {
+        return checkpoint;
+    }
+
+    // Where the journal stands now; every change recorded so far is before the mark.
+    public synchronized Mark mark() {
+        return new Mark(sequence, end);
+    }
+
+    public long added(Student student) {
+        int[] grades = student.getGrades();
+        byte[] first = student.getFirstName().getBytes(StandardCharsets.UTF_8);
+        byte[] last = student.getLastName().getBytes(StandardCharsets.UTF_8);
+        synchronized (this) {
+            ByteBuffer body = begin(ADDED, 4 + 1 + 4 + 4 + first.length + 4 + last.length + 4 + grades.length);
+            if (body == null) return -1;
+            body.putInt(student.getId())
+                .put(student.getGroup() == StudentGroup.TELECOM ? TELECOM : CYBER_SECURITY)
+                .putInt(student.getBirthYear())
+                .putInt(first.length).put(first)
+                .putInt(last.length).put(last)
+                .putInt(grades.length);
+            for (int grade : grades) body.put((byte) grade);
+            return finish();
+        }
+    }
+
+    public synchronized long gradeAdded(int id, int index, int grade) {
+        ByteBuffer body = begin(GRADE_ADDED, 4 + 4 + 1);
+        if (body == null) return -1;
+        body.putInt(id).putInt(index).put((byte) grade);
+        return finish();
+    }
+
+    public synchronized long removed(int id) {
+        ByteBuffer body = begin(REMOVED, 4);
+        if (body == null) return -1;
+        body.putInt(id);
+        return finish();
+    }
+
+    // Records that storage holds every change up to the mark.
+    public synchronized long checkpoint(Mark saved) {
+        ByteBuffer body = begin(CHECKPOINT, 8 + 8);
+        if (body == null) return -1;
+        body.putLong(saved.sequence()).putLong(saved.offset());
+        checkpoint = saved;
+        return finish();
+    }
+
+    // Records that the records before it, with the changes made while they
+    // were being written, hold the whole roster.
+    public synchronized long image() {
+        ByteBuffer body = begin(IMAGE, 0);
+        if (body == null) return -1;
+        long seq = finish();
+        imageEnd = end;
+        return seq;
+    }
+
+    // Moves to a new file once the last checkpoint left more than segmentBytes
+    // of changes past this file's image. True when it did; the new file starts
+    // without an image. Must not run between taking a mark and checkpointing it,
+    // as a mark is an offset into the file it was taken from.
+    public synchronized boolean roll() {
+        if (checkpoint == null || end - imageEnd <= segmentBytes) return false;
+        // the sync thread writes to the old file until its batch is done
+        while (spare == null && failure == null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+        if (failure != null || closed) return false;
+        try {
+            long position = written;
+            ByteBuffer batch = filling.flip();
+            while (batch.hasRemaining()) {
+                position += channel.write(batch, position);
+            }
+            batch.clear();
+            channel.force(false);
+            written = position;
+            durable = sequence;
+        } catch (IOException e) {
+            failure = e;
+            System.out.println("Journal " + file + " stopped: " + e.getMessage());
+            notifyAll();
+            return false;
+        }
+
+        Path next = file.resolveSibling(file.getFileName() + ".next");
+        Path rolled = Path.of(file + "." + String.format("%019d", sequence));
+        FileChannel fresh = null;
+        boolean linked = false;
+        try {
+            fresh = FileChannel.open(next, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+            fresh.write(ByteBuffer.wrap(MAGIC), 0);
+            long size = copyUnsaved(channel, checkpoint.offset(), end, fresh, MAGIC.length);
+            fresh.force(true);
+            Files.createLink(rolled, file);
+            linked = true;
+            Files.move(next, file, StandardCopyOption.ATOMIC_MOVE);
+            channel.close();
+            channel = fresh;
+            end = size;
+            written = size;
+            imageEnd = 0;
+            // the new file has no checkpoint; everything in it is what storage may not hold
+            checkpoint = null;
+        } catch (IOException | UnsupportedOperationException e) {
+            System.out.println("Journal " + file + " could not start a new file, continuing in this one: " + e.getMessage());
+            try {
+                if (fresh != null) fresh.close();
+                Files.deleteIfExists(next);
+                if (linked) Files.deleteIfExists(rolled);
+            } catch (IOException ignored) {
+                // a leftover copy of this file is only replayed again, which changes nothing
+            }
+            return false;
+        }
+        try {
+            List<Path> segments = segments(file);
+            for (Path old : segments.subList(0, Math.max(0, segments.size() - 1 - KEEP_SEGMENTS))) {
+                Files.deleteIfExists(old);
+            }
+        } catch (IOException e) {
+            System.out.println("Old journal files of " + file + " could not be deleted: " + e.getMessage());
+        }
+        return true;
+    }
+
+    // Copies the records between the offsets, leaving out checkpoints, whose
+    // offsets belong to the old file. Returns the offset past the last copy.
+    private static long copyUnsaved(FileChannel from, long start, long stop, FileChannel to, long at) throws IOException {
+        ByteBuffer records = ByteBuffer.allocate(Math.toIntExact(stop - start));
+        while (records.hasRemaining() && from.read(records, start + records.position()) > 0) {
+        }
+        records.flip();
+        ByteBuffer kept = ByteBuffer.allocate(records.limit());
+        while (records.remaining() >= HEADER) {
+            int length = records.getInt(records.position());
+            ByteBuffer record = records.slice(records.position(), HEADER + length);
+            if (record.get(HEADER + 16) != CHECKPOINT) kept.put(record);
+            records.position(records.position() + HEADER + length);
+        }
+        kept.flip();
+        while (kept.hasRemaining()) {
+            at += to.write(kept, at);
+        }
+        return at;
+    }
+
+    // The files of a journal, oldest first: the ones rolled away, then the one being written.
+    static List<Path> segments(Path file) throws IOException {
+        String prefix = file.getFileName() + ".";
+        List<Path> segments = new ArrayList<>();
+        try (Stream<Path> files = Files.list(Objects.requireNonNullElse(file.toAbsolutePath().getParent(), Path.of(".")))) {
+            files.filter(f -> {
+                String name = f.getFileName().toString();
+                return name.length() == prefix.length() + 19 && name.startsWith(prefix)
+                    && name.substring(prefix.length()).chars().allMatch(Character::isDigit);
+            }).sorted().forEach(segments::add);
+        }
+        segments.add(file);
+        return segments;
+    }
+
+    // Reserves room for a record and writes its body header; null when the
+    // journal can no longer be written.
+    private ByteBuffer begin(byte type, int payload) {
+        while (filling.position() >= MAX_BUFFERED && failure == null && !closed) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        if (failure != null || closed) return null;
+        int length = 8 + 8 + 1 + payload;
+        if (filling.remaining() < HEADER + length) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(filling.capacity() * 2, filling.position() + HEADER + length));
+            bigger.put(filling.flip());
+            filling = bigger;
+        }
+        lastTime = Math.max(lastTime, System.currentTimeMillis());
+        recordStart = filling.position();
+        return filling.putInt(length).putInt(0).putLong(++sequence).putLong(lastTime).put(type);
+    }
+
+    private long finish() {
+        int bodyStart = recordStart + HEADER;
+        crc.reset();
+        crc.update(filling.slice(bodyStart, filling.position() - bodyStart));
+        filling.putInt(recordStart + 4, (int) crc.getValue());
+        end += filling.position() - recordStart;
+        notifyAll();
+        return sequence;
+    }
+
+    private void syncLoop() {
+        while (true) {
+            ByteBuffer batch;
+            long through;
+            long at;
+            synchronized (this) {
+                while (filling.position() == 0 && !closed) {
+                    try {
+                        wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (filling.position() == 0) return;
+                batch = filling.flip();
+                filling = spare;
+                spare = null;
+                through = sequence;
+                at = written;
+            }
+
+            IOException error = null;
+            try {
+                long position = at;
+                while (batch.hasRemaining()) {
+                    position += channel.write(batch, position);
+                }
+                channel.force(false);
+            } catch (IOException e) {
+                error = e;
+            }
+
+            synchronized (this) {
+                if (error != null) {
+                    // later changes are not recorded, so nothing after this point can be replayed
+                    failure = error;
+                    System.out.println("Journal " + file + " stopped: " + error.getMessage());
+                } else {
+                    written = at + batch.limit();
+                    durable = through;
+                }
+                spare = batch.clear();
+                notifyAll();
+                if (error != null) return;
+            }
+        }
+    }
+
+    // Waits until everything appended so far is on disk.
+    public synchronized void sync() throws IOException {
+        long target = sequence;
+        while (durable < target && failure == null) {
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted waiting for " + file, e);
+            }
+        }
+        if (failure != null) throw new IOException(file + " could not be written", failure);
+    }
+
+    // Visits the records after the last checkpoint, or all of them when there
+    // has been none: the changes storage may not hold.
+    public void replayUnsaved(Visitor visitor) throws IOException {
+        Mark saved = lastCheckpoint();
+        read(channel, saved == null ? MAGIC.length : saved.offset(), visitor);
+    }
+
+    // Visits the records of a journal made up to the given time, for rebuilding
+    // the roster as it was then: those of the newest file with an image from
+    // before that time, and of every file after it.
+    static void replay(Path file, long untilMillis, Visitor visitor) throws IOException {
+        List<Path> segments = segments(file);
+        int first = segments.size() - 1;
+        while (first >= 0 && imageTime(segments.get(first)) > untilMillis) {
+            first--;
+        }
+        if (first < 0) {
+            throw new IOException(file + " has no image of the roster from before " + Instant.ofEpochMilli(untilMillis));
+        }
+        for (Path segment : segments.subList(first, segments.size())) {
+            try (FileChannel channel = openRead(segment)) {
+                long end = read(channel, MAGIC.length, new Visitor() {
+                    @Override
+                    public void added(long seq, long time, Student student) {
+                        if (time <= untilMillis) visitor.added(seq, time, student);
+                    }
+
+                    @Override
+                    public void gradeAdded(long seq, long time, int id, int index, int grade) {
+                        if (time <= untilMillis) visitor.gradeAdded(seq, time, id, index, grade);
+                    }
+
+                    @Override
+                    public void removed(long seq, long time, int id) {
+                        if (time <= untilMillis) visitor.removed(seq, time, id);
+                    }
+
+                    @Override
+                    public void checkpoint(long seq, long time, Mark saved) {
+                        if (time <= untilMillis) visitor.checkpoint(seq, time, saved);
+                    }
+
+                    @Override
+                    public void image(long seq, long time) {
+                        if (time <= untilMillis) visitor.image(seq, time);
+                    }
+                });
+                if (end < channel.size() && intactRecordAfter(channel, end)) {
+                    throw new IOException(segment + ": the record at offset " + end + " is corrupt and intact records follow it");
+                }
+            }
+        }
+    }
+
+    // When the first image of a journal file was complete; MAX_VALUE if it has none.
+    private static long imageTime(Path segment) throws IOException {
+        long[] imaged = {Long.MAX_VALUE};
+        try (FileChannel channel = openRead(segment)) {
+            read(channel, MAGIC.length, new Visitor() {
+                @Override
+                public void added(long seq, long time, Student student) {
+                }
+
+                @Override
+                public void gradeAdded(long seq, long time, int id, int index, int grade) {
+                }
+
+                @Override
+                public void removed(long seq, long time, int id) {
+                }
+
+                @Override
+                public void image(long seq, long time) {
+                    imaged[0] = Math.min(imaged[0], time);
+                }
+            });
+        }
+        return imaged[0];
+    }
+
+    private static FileChannel openRead(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        ByteBuffer header = ByteBuffer.allocate(MAGIC.length);
+        channel.read(header, 0);
+        if (!Arrays.equals(header.array(), MAGIC)) {
+            channel.close();
+            throw new IOException(file + " is not a student journal");
+        }
+        return channel;
+    }
+
+    // Visits whole records from the offset on and returns the offset past the
+    // last one. Stops at a record that is cut off or fails its checksum, which
+    // is where a write was under way.
+    private static long read(FileChannel channel, long from, Visitor visitor) throws IOException {
+        return read(channel, from, visitor, null);
+    }
+
+    // Also leaves the offset past the last IMAGE record in imageAt[0].
+    private static long read(FileChannel channel, long from, Visitor visitor, long[] imageAt) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(READ_BUFFER);
+        CRC32C crc = new CRC32C();
+        long position = from;
+        while (true) {
+            int read = channel.read(buffer, position + buffer.position());
+            buffer.flip();
+            int done = 0;
+            while (buffer.remaining() - done >= HEADER) {
+                int length = buffer.getInt(done);
+                if (length < MIN_BODY) return position + done;
+                if (buffer.remaining() - done < HEADER + length) {
+                    // a length reaching past the end of the file is a torn write, not a big record
+                    if (position + done + HEADER + length > channel.size()) return position + done;
+                    break;
+                }
+                ByteBuffer body = buffer.slice(done + HEADER, length);
+                crc.reset();
+                crc.update(body.duplicate());
+                if ((int) crc.getValue() != buffer.getInt(done + 4)) return position + done;
+                try {
+                    if (decode(body, visitor) == IMAGE && imageAt != null) imageAt[0] = position + done + HEADER + length;
+                } catch (BufferUnderflowException | NegativeArraySizeException | IllegalArgumentException e) {
+                    throw new IOException("Corrupt journal record at offset " + (position + done), e);
+                }
+                done += HEADER + length;
+            }
+            position += done;
+            if (read <= 0 && done == 0) return position;
+            buffer.position(done);
+            if (done == 0 && buffer.limit() == buffer.capacity()) {
+                // a single record larger than the buffer
+                ByteBuffer bigger = ByteBuffer.allocateDirect(buffer.capacity() * 2);
+                bigger.put(buffer);
+                buffer = bigger;
+            } else {
+                buffer.compact();
+            }
+        }
+    }
+
+    // Looks for a record that checks out anywhere after the bad one.
+    private static boolean intactRecordAfter(FileChannel channel, long offset) throws IOException {
+        MappedByteBuffer rest = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+            Math.min(channel.size() - offset, Integer.MAX_VALUE));
+        CRC32C crc = new CRC32C();
+        for (int at = 1; at <= rest.limit() - HEADER - MIN_BODY; at++) {
+            int length = rest.getInt(at);
+            if (length < MIN_BODY || length > rest.limit() - at - HEADER) continue;
+            byte type = rest.get(at + HEADER + 16);
+            if (type < ADDED || type > IMAGE) continue;
+            crc.reset();
+            crc.update(rest.slice(at + HEADER, length));
+            if ((int) crc.getValue() == rest.getInt(at + 4)) return true;
+        }
+        return false;
+    }
+
+    private static byte decode(ByteBuffer body, Visitor visitor) {
+        long seq = body.getLong();
+        long time = body.getLong();
+        byte type = body.get();
+        switch (type) {
+            case ADDED -> {
+                int id = body.getInt();
+                boolean telecom = body.get() == TELECOM;
+                int birthYear = body.getInt();
+                String first = readString(body);
+                String last = readString(body);
+                Student student = telecom
+                    ? new TelecomStudent(id, first, last, birthYear)
+                    : new CyberSecurityStudent(id, first, last, birthYear);
+                int grades = body.getInt();
+                for (int i = 0; i < grades; i++) student.appendGrade(body.get());
+                visitor.added(seq, time, student);
+            }
+            case GRADE_ADDED -> visitor.gradeAdded(seq, time, body.getInt(), body.getInt(), body.get());
+            case REMOVED -> visitor.removed(seq, time, body.getInt());
+            case CHECKPOINT -> visitor.checkpoint(seq, time, new Mark(body.getLong(), body.getLong()));
+            case IMAGE -> visitor.image(seq, time);
+            default -> throw new IllegalArgumentException("Unknown journal record type " + type);
+        }
+        return type;
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Everything appended is written and forced before the file is closed.
+    @Override
+    public void close() {
+        synchronized (this) {
+            if (closed) return;
+            closed = true;
+            notifyAll();
+        }
+        try {
+            syncer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        try {
+            channel.close();
+        } catch (IOException e) {
+            System.out.println("Error closing " + file + ": " + e.getMessage());
+        }
+    }
+
+    // Follows a journal that is being written elsewhere, e.g. to keep a read
+    // copy of the roster up to date. Each poll visits the records completed
+    // since the last one; a record still being written is picked up next time.
+    // When the writer rolls to a new file, the tailer finishes the old one and
+    // goes on from the start of the new one, whose first records it has seen.
+    static final class Tailer implements AutoCloseable {
+        private final Path file;
+        private Object key;
+        private FileChannel channel;
+        private long position = MAGIC.length;
+
+        Tailer(Path file) throws IOException {
+            this.file = file;
+            // taken before opening, so a roll in between only means reading the new file twice
+            this.key = keyOf(file);
+            this.channel = openRead(file);
+        }
+
+        private static Object keyOf(Path file) throws IOException {
+            return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+        }
+
+        // Returns how far into the current file the tailer has read.
+        public long poll(Visitor visitor) throws IOException {
+            while (true) {
+                // looked at before reading, so a rolled file is read to its end before moving on
+                Object current = keyOf(file);
+                position = read(channel, position, visitor);
+                if (current == null || current.equals(key)) return position;
+                channel.close();
+                key = current;
+                channel = openRead(file);
+                position = MAGIC.length;
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,142 @@
+package project;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+// Every distinct name once, referred to by a code: its position in the order
+// names were first seen. The names are UTF-8 back to back in one buffer, found
+// by an open-addressing table of codes, so a name costs its bytes plus a few
+// ints instead of a String, a boxed code and a map entry. Codes are never
+// reused; a name stays here after the last student with it is gone.
+class NameDictionary {
+    private final boolean offHeap;
+    private ByteBuffer bytes;
+    // Name c is bytes [starts[c], starts[c + 1]).
+    private int[] starts = new int[1025];
+    private int[] hashes = new int[1024];
+    // code + 1 per slot, 0 when free; never more than half full
+    private int[] table = new int[2048];
+    private int size;
+
+    public NameDictionary(boolean offHeap) {
+        this.offHeap = offHeap;
+        this.bytes = allocate(1 << 14);
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return offHeap ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // Bytes held for the names and the arrays that find them.
+    public long footprint() {
+        return bytes.capacity() + 4L * (starts.length + hashes.length + table.length);
+    }
+
+    public int encode(String name) {
+        byte[] utf8 = name.getBytes(StandardCharsets.UTF_8);
+        int hash = Arrays.hashCode(utf8);
+        int mask = table.length - 1;
+        int slot = mix(hash) & mask;
+        for (int code; (code = table[slot] - 1) >= 0; slot = (slot + 1) & mask) {
+            if (hashes[code] == hash && equals(code, utf8)) return code;
+        }
+
+        int code = size++;
+        int start = starts[code];
+        if (start + utf8.length > bytes.capacity()) {
+            ByteBuffer grown = allocate((int) Math.min(Integer.MAX_VALUE,
+                Math.max((long) bytes.capacity() * 2, (long) start + utf8.length)));
+            grown.put(0, bytes, 0, start);
+            bytes = grown;
+        }
+        bytes.put(start, utf8);
+        if (size == hashes.length) {
+            hashes = Arrays.copyOf(hashes, size * 2);
+            starts = Arrays.copyOf(starts, size * 2 + 1);
+        }
+        starts[size] = start + utf8.length;
+        hashes[code] = hash;
+        table[slot] = code + 1;
+        if (size * 2 > table.length) rehash();
+        return code;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean equals(int code, byte[] utf8) {
+        int start = starts[code];
+        if (starts[code + 1] - start != utf8.length) return false;
+        for (int i = 0; i < utf8.length; i++) {
+            if (bytes.get(start + i) != utf8[i]) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        int[] grown = new int[table.length * 2];
+        int mask = grown.length - 1;
+        for (int code = 0; code < size; code++) {
+            int slot = mix(hashes[code]) & mask;
+            while (grown[slot] != 0) slot = (slot + 1) & mask;
+            grown[slot] = code + 1;
+        }
+        table = grown;
+    }
+
+    public String decode(int code) {
+        byte[] utf8 = new byte[starts[code + 1] - starts[code]];
+        bytes.get(starts[code], utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+
+    // Orders codes by their names' UTF-8 bytes, which is code point order, as
+    // SQLite sorts text.
+    public int compare(int a, int b) {
+        if (a == b) return 0;
+        int i = starts[a];
+        int j = starts[b];
+        int aEnd = starts[a + 1];
+        int bEnd = starts[b + 1];
+        for (; i < aEnd && j < bEnd; i++, j++) {
+            int c = Integer.compare(bytes.get(i) & 0xFF, bytes.get(j) & 0xFF);
+            if (c != 0) return c;
+        }
+        return Integer.compare(aEnd - starts[a], bEnd - starts[b]);
+    }
+
+    // Which codes stand for names starting with the prefix, so a scan tests a
+    // flag per row instead of comparing names. When normalized, the prefix came
+    // from StudentQuery and is matched against StudentQuery.normalize of each
+    // name: ASCII is folded byte by byte, and only a name with other characters
+    // where the prefix falls is decoded.
+    public boolean[] startingWith(String prefix, boolean normalized) {
+        byte[] wanted = prefix.getBytes(StandardCharsets.UTF_8);
+        boolean[] matches = new boolean[size];
+        for (int code = 0; code < size; code++) {
+            int start = starts[code];
+            int length = starts[code + 1] - start;
+            int i = 0;
+            for (; i < wanted.length && i < length; i++) {
+                byte b = bytes.get(start + i);
+                if (normalized) {
+                    if (b < 0) break;
+                    if (b >= 'A' && b <= 'Z') b += 'a' - 'A';
+                }
+                if (b != wanted[i]) break;
+            }
+            if (i == wanted.length) {
+                matches[code] = true;
+            } else if (normalized && i < length && bytes.get(start + i) < 0) {
+                matches[code] = StudentQuery.normalize(decode(code)).startsWith(prefix);
+            }
+        }
+        return matches;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package project;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// SHA-256 of a student's name, hex encoded. Digests are reused per thread and
+// the result is cached on the student until its name changes.
+final class NameHasher {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private NameHasher() {
+    }
+
+    record Entry(String firstName, String lastName, String hex) {
+        boolean matches(String first, String last) {
+            return firstName.equals(first) && lastName.equals(last);
+        }
+    }
+
+    static String sha256Hex(String text) {
+        // default charset, as the hashes have always been computed
+        byte[] hash = SHA_256.get().digest(text.getBytes());
+        char[] hex = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            hex[2 * i] = HEX[(hash[i] >> 4) & 0xF];
+            hex[2 * i + 1] = HEX[hash[i] & 0xF];
+        }
+        return new String(hex);
+    }
+
+    // Student ID -> name hash for every CyberSecurity student.
+    static Map<Integer, String> hashCyberStudents(StudentDatabase db) {
+        return hashCyberStudents(db.getAllStudents());
+    }
+
+    static Map<Integer, String> hashCyberStudents(Collection<? extends Student> students) {
+        return students.parallelStream()
+            .filter(s -> s instanceof CyberSecurityStudent)
+            .collect(Collectors.toConcurrentMap(Student::getId, s -> ((CyberSecurityStudent) s).getNameHash()));
+    }
+}
\ No newline at end of file
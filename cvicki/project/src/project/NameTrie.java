@@ -0,0 +1,166 @@
+package project;
+
+import java.util.Arrays;
+import java.util.List;
+
+// Radix tree from lower-cased names to students. Edges carry whole runs of
+// characters, so a roster of distinct names costs about one node per name.
+class NameTrie {
+    private static final Node[] NO_CHILDREN = new Node[0];
+    private static final Student[] NO_STUDENTS = new Student[0];
+
+    private static final class Node {
+        String label;
+        Node[] children = NO_CHILDREN;
+        Student[] students = NO_STUDENTS;
+        int studentCount;
+
+        Node(String label) {
+            this.label = label;
+        }
+
+        // Children are kept sorted by the first character of their label.
+        int find(char c) {
+            int lo = 0;
+            int hi = children.length - 1;
+            while (lo <= hi) {
+                int mid = (lo + hi) >>> 1;
+                char m = children[mid].label.charAt(0);
+                if (m < c) lo = mid + 1;
+                else if (m > c) hi = mid - 1;
+                else return mid;
+            }
+            return -(lo + 1);
+        }
+
+        void insertChild(int at, Node child) {
+            Node[] grown = new Node[children.length + 1];
+            System.arraycopy(children, 0, grown, 0, at);
+            grown[at] = child;
+            System.arraycopy(children, at, grown, at + 1, children.length - at);
+            children = grown;
+        }
+
+        void removeChild(int at) {
+            Node[] shrunk = new Node[children.length - 1];
+            System.arraycopy(children, 0, shrunk, 0, at);
+            System.arraycopy(children, at + 1, shrunk, at, children.length - at - 1);
+            children = shrunk.length == 0 ? NO_CHILDREN : shrunk;
+        }
+    }
+
+    private Node root = new Node("");
+
+    public void add(String key, Student student) {
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            int at = node.find(key.charAt(i));
+            if (at < 0) {
+                Node leaf = new Node(key.substring(i));
+                node.insertChild(-at - 1, leaf);
+                node = leaf;
+                break;
+            }
+            Node child = node.children[at];
+            int common = commonPrefix(child.label, key, i);
+            if (common < child.label.length()) {
+                // split the edge where the new key leaves it
+                Node middle = new Node(child.label.substring(0, common));
+                child.label = child.label.substring(common);
+                middle.children = new Node[] {child};
+                node.children[at] = middle;
+                child = middle;
+            }
+            node = child;
+            i += common;
+        }
+        if (node.studentCount == node.students.length) {
+            node.students = Arrays.copyOf(node.students, Math.max(2, node.studentCount * 2));
+        }
+        node.students[node.studentCount++] = student;
+    }
+
+    // Nodes left without students or children are pruned, and a node left with
+    // no students and one child is merged into it, so churn leaves no dead nodes.
+    public boolean remove(String key, Student student) {
+        // path[d] is the node d edges down, at slots[d] among its parent's children
+        Node[] path = new Node[key.length() + 1];
+        int[] slots = new int[key.length() + 1];
+        path[0] = root;
+        int depth = 0;
+        int i = 0;
+        while (i < key.length()) {
+            Node node = path[depth];
+            int at = node.find(key.charAt(i));
+            if (at < 0) return false;
+            Node child = node.children[at];
+            if (!key.startsWith(child.label, i)) return false;
+            depth++;
+            path[depth] = child;
+            slots[depth] = at;
+            i += child.label.length();
+        }
+
+        Node node = path[depth];
+        int s = 0;
+        while (s < node.studentCount && node.students[s] != student) s++;
+        if (s == node.studentCount) return false;
+        node.students[s] = node.students[--node.studentCount];
+        node.students[node.studentCount] = null;
+        if (node.studentCount == 0) node.students = NO_STUDENTS;
+
+        while (depth > 0 && path[depth].studentCount == 0 && path[depth].children.length == 0) {
+            path[depth - 1].removeChild(slots[depth]);
+            depth--;
+        }
+        // only the node that lost a student or a child can have become a pass-through
+        Node last = path[depth];
+        if (depth > 0 && last.studentCount == 0 && last.children.length == 1) {
+            Node only = last.children[0];
+            only.label = last.label + only.label;
+            path[depth - 1].children[slots[depth]] = only;
+        }
+        return true;
+    }
+
+    public void clear() {
+        root = new Node("");
+    }
+
+    // Adds every student whose key starts with the prefix, in key order.
+    public void collect(String prefix, List<Student> into) {
+        Node node = root;
+        int i = 0;
+        while (i < prefix.length()) {
+            int at = node.find(prefix.charAt(i));
+            if (at < 0) return;
+            Node child = node.children[at];
+            int common = commonPrefix(child.label, prefix, i);
+            if (i + common == prefix.length()) {
+                node = child;
+                break;
+            }
+            if (common < child.label.length()) return;
+            node = child;
+            i += common;
+        }
+        collectAll(node, into);
+    }
+
+    private static void collectAll(Node node, List<Student> into) {
+        for (int s = 0; s < node.studentCount; s++) {
+            into.add(node.students[s]);
+        }
+        for (Node child : node.children) {
+            collectAll(child, into);
+        }
+    }
+
+    private static int commonPrefix(String label, String key, int from) {
+        int max = Math.min(label.length(), key.length() - from);
+        int n = 0;
+        while (n < max && label.charAt(n) == key.charAt(from + n)) n++;
+        return n;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,128 @@
+package project;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+// Call counts and latency histograms per database operation. Throughput is
+// counted from creation or the last reset. Every call is counted, but lookups
+// are timed only on a random sample: two clock reads cost more than the
+// lookup itself.
+class OperationMetrics {
+    private static final long NOT_TIMED = Long.MIN_VALUE;
+
+    enum Operation {
+        LOAD("load", 1),
+        SAVE("save", 1),
+        LOAD_GRADES("loadGrades", 1),
+        FIND("find", 64),
+        ADD("add", 1),
+        REMOVE("remove", 1),
+        IMPORT("import", 1),
+        SORT("sort", 1),
+        QUERY("query", 1);
+
+        private final String label;
+        private final int sampleMask;
+
+        // sampleEvery must be a power of two
+        Operation(String label, int sampleEvery) {
+            this.label = label;
+            this.sampleMask = sampleEvery - 1;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+    }
+
+    private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> calls = new EnumMap<>(Operation.class);
+    private volatile long startNanos = System.nanoTime();
+
+    public OperationMetrics() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new LatencyHistogram());
+            calls.put(operation, new LongAdder());
+        }
+    }
+
+    // Pass the result to record() once the operation is done.
+    public long start(Operation operation) {
+        if (operation.sampleMask != 0 && (ThreadLocalRandom.current().nextInt() & operation.sampleMask) != 0) {
+            return NOT_TIMED;
+        }
+        return System.nanoTime();
+    }
+
+    public void record(Operation operation, long start) {
+        calls.get(operation).increment();
+        if (start != NOT_TIMED) histograms.get(operation).record(System.nanoTime() - start);
+    }
+
+    public long getCount(Operation operation) {
+        return calls.get(operation).sum();
+    }
+
+    public LatencyHistogram.Snapshot snapshot(Operation operation) {
+        return histograms.get(operation).snapshot();
+    }
+
+    public void reset() {
+        histograms.values().forEach(LatencyHistogram::reset);
+        calls.values().forEach(LongAdder::reset);
+        startNanos = System.nanoTime();
+    }
+
+    // One line per operation that has been called, latencies in microseconds.
+    public String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        StringBuilder out = new StringBuilder(1024);
+        out.append(String.format(Locale.ROOT, "Operation metrics over %.1f s (latency in microseconds)%n", seconds));
+        out.append(String.format(Locale.ROOT, "%-11s %10s %10s %10s %10s %10s %10s %10s%n",
+                "operation", "count", "ops/s", "mean", "p50", "p95", "p99", "max"));
+        boolean any = false;
+        for (Operation operation : Operation.values()) {
+            long count = getCount(operation);
+            if (count == 0) continue;
+            any = true;
+            LatencyHistogram.Snapshot s = snapshot(operation);
+            out.append(String.format(Locale.ROOT, "%-11s %10d %10.1f %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    operation.getLabel(), count, count / seconds, s.getMean() / 1e3,
+                    s.getPercentile(50) / 1e3, s.getPercentile(95) / 1e3, s.getPercentile(99) / 1e3,
+                    s.getMax() / 1e3));
+        }
+        if (!any) out.append("(no operations recorded)").append(System.lineSeparator());
+        return out.toString();
+    }
+
+    public void appendJson(StringBuilder out) {
+        double seconds = Math.max(1e-9, (System.nanoTime() - startNanos) / 1e9);
+        out.append("{\"seconds\":").append(seconds);
+        for (Operation operation : Operation.values()) {
+            long count = getCount(operation);
+            LatencyHistogram.Snapshot s = snapshot(operation);
+            out.append(",\"").append(operation.getLabel()).append("\":{\"count\":").append(count)
+               .append(",\"timed\":").append(s.getCount())
+               .append(",\"opsPerSecond\":").append(count / seconds)
+               .append(",\"meanNanos\":").append(Math.round(s.getMean()))
+               .append(",\"p50Nanos\":").append(s.getPercentile(50))
+               .append(",\"p95Nanos\":").append(s.getPercentile(95))
+               .append(",\"p99Nanos\":").append(s.getPercentile(99))
+               .append(",\"maxNanos\":").append(s.getMax()).append('}');
+        }
+        out.append('}');
+    }
+
+    public void dump(Path file) throws IOException {
+        try (Writer out = Files.newBufferedWriter(file)) {
+            out.write(report());
+        }
+    }
+}
\ No newline at end of file
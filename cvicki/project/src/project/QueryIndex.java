@@ -0,0 +1,73 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeMap;
+
+// Name tries and a birth-year tree over the whole roster for StudentQuery. Like
+// GroupOrder it is kept up to date under the student's lock and only built from
+// the index when the first query needs it.
+class QueryIndex {
+    private final NameTrie firstNames = new NameTrie();
+    private final NameTrie lastNames = new NameTrie();
+    // Birth year in the high half of the key and ID in the low half.
+    private final TreeMap<Long, Student> byBirthYear = new TreeMap<>();
+    private final StudentIndex index;
+    private boolean built;
+
+    public QueryIndex(StudentIndex index) {
+        this.index = index;
+    }
+
+    private void ensureBuilt() {
+        if (built) return;
+        built = true;
+        index.forEach(this::studentAdded);
+    }
+
+    private static long yearKey(int birthYear, int id) {
+        return (long) birthYear << 32 | (id & 0xFFFFFFFFL);
+    }
+
+    synchronized void studentAdded(Student student) {
+        if (!built) return;
+        if (byBirthYear.put(yearKey(student.getBirthYear(), student.getId()), student) != null) return;
+        firstNames.add(StudentQuery.normalize(student.getFirstName()), student);
+        lastNames.add(StudentQuery.normalize(student.getLastName()), student);
+    }
+
+    synchronized void studentRemoved(Student student) {
+        if (!built) return;
+        if (byBirthYear.remove(yearKey(student.getBirthYear(), student.getId())) == null) return;
+        firstNames.remove(StudentQuery.normalize(student.getFirstName()), student);
+        lastNames.remove(StudentQuery.normalize(student.getLastName()), student);
+    }
+
+    synchronized void clear() {
+        firstNames.clear();
+        lastNames.clear();
+        byBirthYear.clear();
+        built = false;
+    }
+
+    // The prefix must already be normalized.
+    synchronized List<Student> firstNamePrefix(String prefix) {
+        ensureBuilt();
+        List<Student> result = new ArrayList<>();
+        firstNames.collect(prefix, result);
+        return result;
+    }
+
+    synchronized List<Student> lastNamePrefix(String prefix) {
+        ensureBuilt();
+        List<Student> result = new ArrayList<>();
+        lastNames.collect(prefix, result);
+        return result;
+    }
+
+    synchronized List<Student> bornBetween(int from, int to) {
+        ensureBuilt();
+        if (from > to) return new ArrayList<>();
+        return new ArrayList<>(byBirthYear.subMap(yearKey(from, 0), true, yearKey(to, -1), true).values());
+    }
+}
\ No newline at end of file
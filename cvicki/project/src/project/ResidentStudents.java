@@ -0,0 +1,61 @@
+package project;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+// Students of a stored roster that are in use somewhere, so a second lookup of
+// the same ID returns the same object and no change is made to a stale copy.
+// Entries go away once nothing else holds the student; students with unsaved
+// changes are held by the pending set until they are written.
+class ResidentStudents {
+    private static final class Entry extends WeakReference<Student> {
+        final int id;
+
+        Entry(Student student, ReferenceQueue<Student> queue) {
+            super(student, queue);
+            this.id = student.getId();
+        }
+    }
+
+    private final Map<Integer, Entry> entries = new HashMap<>();
+    private final ReferenceQueue<Student> collected = new ReferenceQueue<>();
+
+    public synchronized Student get(int id) {
+        expunge();
+        Entry entry = entries.get(id);
+        return entry == null ? null : entry.get();
+    }
+
+    // The student already resident under this ID, or the given one, which is now resident.
+    public synchronized Student adopt(Student student) {
+        expunge();
+        Entry entry = entries.get(student.getId());
+        Student current = entry == null ? null : entry.get();
+        if (current != null) return current;
+        entries.put(student.getId(), new Entry(student, collected));
+        return student;
+    }
+
+    // False when the student is no longer the resident one, e.g. already removed.
+    public synchronized boolean remove(Student student) {
+        Entry entry = entries.get(student.getId());
+        if (entry == null || entry.get() != student) return false;
+        entries.remove(student.getId());
+        return true;
+    }
+
+    public synchronized int size() {
+        expunge();
+        return entries.size();
+    }
+
+    private void expunge() {
+        Entry entry;
+        while ((entry = (Entry) collected.poll()) != null) {
+            // the ID may have been taken by a newer entry in the meantime
+            if (entries.get(entry.id) == entry) entries.remove(entry.id);
+        }
+    }
+}
\ No newline at end of file
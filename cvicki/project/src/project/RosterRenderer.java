@@ -0,0 +1,93 @@
+package project;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.text.DecimalFormatSymbols;
+
+// Formats roster rows ("%06d: %s %s (%d) - %.2f") by hand into one reusable
+// buffer and hands it to the writer in large chunks instead of a printf per row.
+class RosterRenderer {
+    private static final int CHUNK = 64 * 1024;
+
+    private final Writer out;
+    private final StringBuilder buffer = new StringBuilder(CHUNK + 256);
+    private final char decimalSeparator = DecimalFormatSymbols.getInstance().getDecimalSeparator();
+
+    public RosterRenderer(Writer out) {
+        this.out = out;
+    }
+
+    public void line(String text) {
+        buffer.append(text).append('\n');
+        flushIfFull();
+    }
+
+    public void row(Student s) {
+        int id = s.getId();
+        for (int digits = digits(id); digits < 6; digits++) {
+            buffer.append('0');
+        }
+        buffer.append(id).append(": ")
+            .append(s.getFirstName()).append(' ')
+            .append(s.getLastName()).append(" (")
+            .append(s.getBirthYear()).append(") - ");
+        int hundredths = s.getAverageHundredths();
+        buffer.append(hundredths / 100).append(decimalSeparator);
+        int fraction = hundredths % 100;
+        if (fraction < 10) buffer.append('0');
+        buffer.append(fraction).append('\n');
+        flushIfFull();
+    }
+
+    public void rows(Iterable<Student> students) {
+        for (Student s : students) {
+            row(s);
+        }
+    }
+
+    // Renders one page of a group listing with a "Page N of M" footer and
+    // returns the page actually shown (clamped to the available range).
+    public int page(StudentDatabase db, StudentGroup group, StudentOrder order, boolean descending,
+                    int page, int pageSize) {
+        int total = db.getGroupCount(group.getLabel());
+        int pages = Math.max(1, (total + pageSize - 1) / pageSize);
+        page = Math.max(1, Math.min(page, pages));
+
+        rows(db.getStudentsSorted(group, order, descending, (page - 1) * pageSize, pageSize));
+        buffer.append("-- Page ").append(page).append(" of ").append(pages)
+            .append(" (").append(total).append(" students) --\n");
+        flush();
+        return page;
+    }
+
+    public void flush() {
+        try {
+            out.append(buffer);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.setLength(0);
+        }
+    }
+
+    private void flushIfFull() {
+        if (buffer.length() < CHUNK) return;
+        try {
+            out.append(buffer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            buffer.setLength(0);
+        }
+    }
+
+    private static int digits(int value) {
+        int digits = 1;
+        for (long limit = 10; value >= limit || value <= -limit; limit *= 10) {
+            digits++;
+        }
+        return value < 0 ? digits + 1 : digits;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,192 @@
+package project;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// Whole-roster image for fast startup, little-endian:
+//   header  "STUSNAP" version:u8 instance:i64 generation:i64 students:i32 bodyLength:i64 bodyCrc32c:i32
+//   student id:i32 birthYear:i16 group:u8 firstName lastName gradeCount:i32 grades
+// Names are u16 length + UTF-8; grades are packed two per byte, low nibble first.
+final class RosterSnapshot {
+    private static final byte[] MAGIC = "STUSNAP".getBytes(StandardCharsets.ISO_8859_1);
+    private static final byte VERSION = 1;
+    private static final int HEADER = MAGIC.length + 1 + 8 + 8 + 4 + 8 + 4;
+    private static final byte TELECOM = 1;
+    private static final byte CYBER_SECURITY = 2;
+
+    private RosterSnapshot() {
+    }
+
+    static Path pathFor(String dbName) {
+        return Path.of(dbName + ".snapshot");
+    }
+
+    // True if the file is a snapshot of this database (instance) as of this generation.
+    static boolean isCurrent(Path file, long instance, long generation) {
+        if (!Files.isRegularFile(file)) return false;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining() && channel.read(header) > 0) {
+            }
+            header.flip();
+            return header.remaining() == HEADER && hasMagic(header)
+                && header.getLong(MAGIC.length + 1) == instance
+                && header.getLong(MAGIC.length + 9) == generation;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static boolean hasMagic(ByteBuffer header) {
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (header.get(i) != MAGIC[i]) return false;
+        }
+        return header.get(MAGIC.length) == VERSION;
+    }
+
+    // Returns false, writing nothing, if a student cannot be represented: grades
+    // not loaded yet, a name over 65535 bytes, or a year or grade out of range.
+    static boolean write(Path file, long instance, long generation, Collection<Student> students)
+            throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        boolean written = false;
+        try (FileChannel out = FileChannel.open(temp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32C crc = new CRC32C();
+            out.position(HEADER);
+            long bodyLength = writeBody(out, crc, students);
+            if (bodyLength < 0) return false;
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER).order(ByteOrder.LITTLE_ENDIAN);
+            header.put(MAGIC).put(VERSION).putLong(instance).putLong(generation).putInt(students.size())
+                .putLong(bodyLength).putInt((int) crc.getValue()).flip();
+            out.position(0);
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);
+            written = true;
+        } finally {
+            if (!written) Files.deleteIfExists(temp);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return true;
+    }
+
+    private static long writeBody(FileChannel out, CRC32C crc, Collection<Student> students) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+        long bodyLength = 0;
+        for (Student student : students) {
+            byte[] first = student.getFirstName().getBytes(StandardCharsets.UTF_8);
+            byte[] last = student.getLastName().getBytes(StandardCharsets.UTF_8);
+            int birthYear = student.getBirthYear();
+            if (first.length > 0xFFFF || last.length > 0xFFFF || birthYear != (short) birthYear) return -1;
+
+            synchronized (student) {
+                // only grades that have reached the database, so the image matches its generation
+                int count = student.savedGradeCount;
+                if (student.gradeLoader != null && count > 0) return -1;
+
+                int size = 4 + 2 + 1 + 2 + first.length + 2 + last.length + 4 + (count + 1) / 2;
+                if (buffer.remaining() < size) {
+                    bodyLength += drain(buffer, out, crc);
+                    if (buffer.capacity() < size) {
+                        buffer = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+                    }
+                }
+                buffer.putInt(student.getId())
+                    .putShort((short) birthYear)
+                    .put(student.getGroup() == StudentGroup.TELECOM ? TELECOM : CYBER_SECURITY)
+                    .putShort((short) first.length).put(first)
+                    .putShort((short) last.length).put(last)
+                    .putInt(count);
+                byte[] grades = student.grades;
+                for (int i = 0; i < count; i += 2) {
+                    int low = grades[i];
+                    int high = i + 1 < count ? grades[i + 1] : 0;
+                    if (((low | high) & ~0xF) != 0) return -1;
+                    buffer.put((byte) (low | high << 4));
+                }
+            }
+        }
+        return bodyLength + drain(buffer, out, crc);
+    }
+
+    private static long drain(ByteBuffer buffer, FileChannel out, CRC32C crc) throws IOException {
+        buffer.flip();
+        int length = buffer.remaining();
+        crc.update(buffer.duplicate());
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+        buffer.clear();
+        return length;
+    }
+
+    // Maps the snapshot and streams its students into the sink with their grades
+    // loaded and marked as saved. Fails on any mismatch rather than loading half.
+    static int read(Path file, Consumer<Student> sink) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            if (map.remaining() < HEADER || !hasMagic(map)) {
+                throw new IOException(file + " is not a version " + VERSION + " roster snapshot");
+            }
+            map.position(MAGIC.length + 1 + 8 + 8);
+            int count = map.getInt();
+            long bodyLength = map.getLong();
+            int expectedCrc = map.getInt();
+            if (bodyLength != map.remaining()) {
+                throw new IOException(file + " is truncated");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(map.duplicate());
+            if ((int) crc.getValue() != expectedCrc) {
+                throw new IOException(file + " fails its checksum");
+            }
+
+            byte[] scratch = new byte[256];
+            for (int n = 0; n < count; n++) {
+                int id = map.getInt();
+                int birthYear = map.getShort();
+                byte group = map.get();
+                int firstLength = Short.toUnsignedInt(map.getShort());
+                if (scratch.length < firstLength) scratch = new byte[firstLength];
+                map.get(scratch, 0, firstLength);
+                String firstName = new String(scratch, 0, firstLength, StandardCharsets.UTF_8);
+                int lastLength = Short.toUnsignedInt(map.getShort());
+                if (scratch.length < lastLength) scratch = new byte[lastLength];
+                map.get(scratch, 0, lastLength);
+                String lastName = new String(scratch, 0, lastLength, StandardCharsets.UTF_8);
+
+                Student student = group == TELECOM
+                    ? new TelecomStudent(id, firstName, lastName, birthYear)
+                    : new CyberSecurityStudent(id, firstName, lastName, birthYear);
+                int gradeCount = map.getInt();
+                if (gradeCount > 0) {
+                    byte[] grades = new byte[gradeCount];
+                    for (int i = 0; i < gradeCount; i += 2) {
+                        byte packed = map.get();
+                        grades[i] = (byte) (packed & 0xF);
+                        if (i + 1 < gradeCount) grades[i + 1] = (byte) ((packed >> 4) & 0xF);
+                    }
+                    student.setLoadedGrades(grades, gradeCount);
+                    student.savedGradeCount = gradeCount;
+                }
+                sink.accept(student);
+            }
+            return count;
+        }
+    }
+}
\ No newline at end of file
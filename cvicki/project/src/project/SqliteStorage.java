@@ -0,0 +1,680 @@
+package project;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// The roster in SQLite: one row per student plus one row per grade in student_grades.
+// In stored mode the roster is not loaded at all and StudentDatabase runs its
+// lookups, statistics and listings as SQL through StoredRoster.
+class SqliteStorage implements StorageEngine, StoredRoster {
+    private static final int BATCH_SIZE = 1000;
+    private static final int FETCH_SIZE = 1000;
+    // Exact average from the grade summary; AverageGrade is rounded for display.
+    // Queries must spell it exactly like this to use the index on it.
+    private static final String AVERAGE_SQL =
+            "(CASE WHEN GradeCount = 0 THEN 0.0 ELSE CAST(GradeSum AS REAL) / GradeCount END)";
+    private static final String STUDENT_COLUMNS = "ID, StudentGroup, FirstName, LastName, BirthYear, GradeCount, GradeSum";
+    // Schema changes by PRAGMA user_version; entry i takes the schema to version i + 1.
+    private static final String[][] MIGRATIONS = {
+        {
+            "CREATE INDEX IF NOT EXISTS idx_students_group ON students (StudentGroup, ID)",
+            "CREATE INDEX IF NOT EXISTS idx_students_group_last_name ON students (StudentGroup, LastName, ID)",
+            "CREATE INDEX IF NOT EXISTS idx_students_group_average ON students (StudentGroup, " + AVERAGE_SQL + ", ID)",
+        },
+    };
+    private static final String UPSERT_SQL =
+            "INSERT INTO students (ID, StudentGroup, FirstName, LastName, BirthYear, AverageGrade, GradeCount, GradeSum) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT(ID) DO UPDATE SET " +
+            "StudentGroup = excluded.StudentGroup, " +
+            "FirstName = excluded.FirstName, " +
+            "LastName = excluded.LastName, " +
+            "BirthYear = excluded.BirthYear, " +
+            "AverageGrade = excluded.AverageGrade, " +
+            "GradeCount = excluded.GradeCount, " +
+            "GradeSum = excluded.GradeSum";
+
+    private final String dbName;
+    private final boolean lazy;
+    private final boolean stored;
+    private final Path snapshot;
+    private Connection connection;
+    private PreparedStatement gradeQuery;
+    private PreparedStatement gradeRangeQuery;
+    // A snapshot is up to date if it carries this database's random instance ID
+    // and the generation, which every save bumps.
+    private long instance;
+    private long generation;
+    private long snapshotGeneration = -1;
+
+    public SqliteStorage(String dbName, boolean lazy) throws IOException {
+        this(dbName, lazy, true);
+    }
+
+    public SqliteStorage(String dbName, boolean lazy, boolean snapshots) throws IOException {
+        this(dbName, lazy, snapshots, false);
+    }
+
+    // A stored roster always has lazy grades and never a snapshot.
+    public SqliteStorage(String dbName, boolean lazy, boolean snapshots, boolean stored) throws IOException {
+        this.dbName = dbName;
+        this.lazy = lazy || stored;
+        this.stored = stored;
+        this.snapshot = snapshots && !stored ? RosterSnapshot.pathFor(dbName) : null;
+        try {
+            Class.forName("org.sqlite.JDBC");
+            connection = DriverManager.getConnection(
+            	    "jdbc:sqlite:" + dbName + 
+            	    "?busy_timeout=5000" +
+            	    "&journal_mode=WAL" +
+            	    "&synchronous=NORMAL"
+            	);
+            createTables();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("SQLite driver not on the classpath", e);
+        } catch (SQLException e) {
+            close();
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public String describe() {
+        return (stored ? "SQLite (queried in place) " : "SQLite ") + dbName;
+    }
+
+    @Override
+    public boolean isPersistent() {
+        return true;
+    }
+
+    @Override
+    public boolean isLazy() {
+        return lazy;
+    }
+
+    @Override
+    public StoredRoster storedRoster() {
+        return stored ? this : null;
+    }
+
+    private void createTables() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            ResultSet rs = connection.getMetaData().getTables(null, null, "students", null);
+            if (!rs.next()) {
+                stmt.execute("CREATE TABLE students (" +
+                        "ID INT PRIMARY KEY, " +
+                        "StudentGroup VARCHAR(20), " +
+                        "FirstName VARCHAR(50), " +
+                        "LastName VARCHAR(50), " +
+                        "BirthYear INT, " +
+                        "AverageGrade REAL, " +
+                        "GradeCount INT NOT NULL DEFAULT 0, " +
+                        "GradeSum INT NOT NULL DEFAULT 0)");
+            } else {
+                try {
+                    stmt.executeQuery("SELECT AverageGrade FROM students LIMIT 1");
+                } catch (SQLException e) {
+                    stmt.execute("ALTER TABLE students ADD COLUMN AverageGrade REAL");
+                }
+            }
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS student_grades (" +
+                    "student_id INT NOT NULL, " +
+                    "seq INT NOT NULL, " +
+                    "grade INT NOT NULL, " +
+                    "PRIMARY KEY (student_id, seq)) WITHOUT ROWID");
+
+            stmt.execute("CREATE TABLE IF NOT EXISTS meta (key TEXT PRIMARY KEY, value INTEGER NOT NULL)");
+            stmt.execute("INSERT OR IGNORE INTO meta (key, value) VALUES ('generation', 0)");
+            stmt.execute("INSERT OR IGNORE INTO meta (key, value) VALUES ('instance', abs(random()))");
+        }
+
+        if (hasColumn("students", "Grades")) {
+            migrateGradesColumn();
+        }
+        if (!hasColumn("students", "GradeCount")) {
+            addGradeSummaryColumns();
+        }
+        migrate();
+        instance = readMeta("instance");
+        generation = readMeta("generation");
+    }
+
+    private boolean hasColumn(String table, String column) throws SQLException {
+        try (ResultSet rs = connection.getMetaData().getColumns(null, null, table, column)) {
+            return rs.next();
+        }
+    }
+
+    private void migrateGradesColumn() throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement();
+             PreparedStatement insert = connection.prepareStatement(
+                 "INSERT OR REPLACE INTO student_grades (student_id, seq, grade) VALUES (?, ?, ?)")) {
+
+            try (ResultSet rs = stmt.executeQuery(
+                    "SELECT ID, Grades FROM students WHERE Grades IS NOT NULL AND Grades <> ''")) {
+                int batched = 0;
+                while (rs.next()) {
+                    int id = rs.getInt("ID");
+                    String[] grades = rs.getString("Grades").split(",\\s*");
+                    for (int seq = 0; seq < grades.length; seq++) {
+                        insert.setInt(1, id);
+                        insert.setInt(2, seq);
+                        insert.setInt(3, Integer.parseInt(grades[seq].trim()));
+                        insert.addBatch();
+                        if (++batched % BATCH_SIZE == 0) insert.executeBatch();
+                    }
+                }
+            }
+            insert.executeBatch();
+            // dropped with the copy, so the migration runs exactly once
+            stmt.execute("ALTER TABLE students DROP COLUMN Grades");
+            connection.commit();
+        } catch (SQLException | NumberFormatException e) {
+            connection.rollback();
+            throw new SQLException("Grades migration failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    // One transaction, so a crash cannot leave GradeCount, which is what marks
+    // this step done, without GradeSum or without the filled-in summaries.
+    private void addGradeSummaryColumns() throws SQLException {
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("ALTER TABLE students ADD COLUMN GradeCount INT NOT NULL DEFAULT 0");
+            stmt.execute("ALTER TABLE students ADD COLUMN GradeSum INT NOT NULL DEFAULT 0");
+            stmt.execute("UPDATE students SET " +
+                    "GradeCount = (SELECT COUNT(*) FROM student_grades WHERE student_id = students.ID), " +
+                    "GradeSum = (SELECT COALESCE(SUM(grade), 0) FROM student_grades WHERE student_id = students.ID)");
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Grade summary migration failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(true);
+        }
+    }
+
+    private void migrate() throws SQLException {
+        int version;
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("PRAGMA user_version")) {
+            version = rs.next() ? rs.getInt(1) : 0;
+        }
+        for (; version < MIGRATIONS.length; version++) {
+            connection.setAutoCommit(false);
+            try (Statement stmt = connection.createStatement()) {
+                for (String sql : MIGRATIONS[version]) {
+                    stmt.execute(sql);
+                }
+                stmt.execute("PRAGMA user_version = " + (version + 1));
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw new SQLException("Schema migration to version " + (version + 1) + " failed: " + e.getMessage(), e);
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private long readMeta(String key) throws SQLException {
+        try (PreparedStatement query = connection.prepareStatement("SELECT value FROM meta WHERE key = ?")) {
+            query.setString(1, key);
+            try (ResultSet rs = query.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0;
+            }
+        }
+    }
+
+    @Override
+    public void load(Consumer<Student> sink, GradeLoader lazyGrades) throws IOException {
+        if (snapshot != null && RosterSnapshot.isCurrent(snapshot, instance, generation)) {
+            try {
+                RosterSnapshot.read(snapshot, sink);
+                snapshotGeneration = generation;
+                return;
+            } catch (IOException e) {
+                // read() checks the whole file before the first student reaches the sink
+                System.out.println("Ignoring snapshot: " + e.getMessage());
+            }
+        }
+
+        try (Statement stmt = connection.createStatement()) {
+            stmt.setFetchSize(FETCH_SIZE);
+            if (lazy) {
+                try (ResultSet rs = stmt.executeQuery("SELECT " + STUDENT_COLUMNS + " FROM students")) {
+                    while (rs.next()) {
+                        Student student = readStudent(rs);
+                        student.setGradeSummary(rs.getInt("GradeCount"), rs.getInt("GradeSum"), lazyGrades);
+                        sink.accept(student);
+                    }
+                }
+            } else {
+                loadWithGrades(stmt, sink);
+            }
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Students and grades both in ID order, merged as they stream in, so each
+    // student leaves complete and nothing is held back: a sink that keeps the
+    // roster some other way never has it all as objects.
+    private void loadWithGrades(Statement stmt, Consumer<Student> sink) throws SQLException {
+        try (Statement gradeStmt = connection.createStatement()) {
+            gradeStmt.setFetchSize(FETCH_SIZE);
+            try (ResultSet rs = stmt.executeQuery("SELECT " + STUDENT_COLUMNS + " FROM students ORDER BY ID");
+                 ResultSet grades = gradeStmt.executeQuery(
+                     "SELECT student_id, grade FROM student_grades ORDER BY student_id, seq")) {
+                boolean more = grades.next();
+                while (rs.next()) {
+                    Student student = readStudent(rs);
+                    int id = student.getId();
+                    // grades of a student that is gone
+                    while (more && grades.getInt(1) < id) more = grades.next();
+                    while (more && grades.getInt(1) == id) {
+                        student.appendGrade(grades.getInt(2));
+                        more = grades.next();
+                    }
+                    student.savedGradeCount = student.getGradeCount();
+                    sink.accept(student);
+                }
+            }
+        }
+    }
+
+    private static Student readStudent(ResultSet rs) throws SQLException {
+        int id = rs.getInt("ID");
+        String type = rs.getString("StudentGroup");
+        String firstName = rs.getString("FirstName");
+        String lastName = rs.getString("LastName");
+        int birthYear = rs.getInt("BirthYear");
+
+        if ("Telecom".equals(type)) {
+            return new TelecomStudent(id, firstName, lastName, birthYear);
+        } else {
+            return new CyberSecurityStudent(id, firstName, lastName, birthYear);
+        }
+    }
+
+    @Override
+    public void loadGrades(Student student) throws IOException {
+        if (connection == null) {
+            throw new IOException("Grades for student " + student.getId() + " are not available offline");
+        }
+        try {
+            if (gradeQuery == null) {
+                gradeQuery = connection.prepareStatement(
+                        "SELECT grade FROM student_grades WHERE student_id = ? ORDER BY seq");
+            }
+            gradeQuery.setInt(1, student.getId());
+
+            byte[] grades = new byte[Math.max(4, student.getGradeCount())];
+            int count = 0;
+            try (ResultSet rs = gradeQuery.executeQuery()) {
+                while (rs.next()) {
+                    if (count == grades.length) grades = Arrays.copyOf(grades, count * 2);
+                    grades[count++] = (byte) rs.getInt(1);
+                }
+            }
+            student.setLoadedGrades(grades, count);
+        } catch (SQLException e) {
+            throw new IOException("Could not load grades for student " + student.getId(), e);
+        }
+    }
+
+    // One ordered range scan over the student_grades key, skipping IDs not asked for.
+    @Override
+    public void scanGrades(int[] ids, GradeSink sink) throws IOException {
+        if (ids.length == 0) return;
+        if (connection == null) throw new IOException("Grades are not available offline");
+        try {
+            if (gradeRangeQuery == null) {
+                gradeRangeQuery = connection.prepareStatement("SELECT student_id, grade FROM student_grades " +
+                        "WHERE student_id BETWEEN ? AND ? ORDER BY student_id, seq");
+                gradeRangeQuery.setFetchSize(FETCH_SIZE);
+            }
+            gradeRangeQuery.setInt(1, ids[0]);
+            gradeRangeQuery.setInt(2, ids[ids.length - 1]);
+
+            byte[] grades = new byte[64];
+            int next = 0;
+            int current = 0;
+            int count = 0;
+            try (ResultSet rs = gradeRangeQuery.executeQuery()) {
+                while (rs.next()) {
+                    int id = rs.getInt(1);
+                    if (count > 0 && id != current) {
+                        sink.grades(current, grades, count);
+                        count = 0;
+                    }
+                    if (count == 0) {
+                        while (next < ids.length && ids[next] < id) next++;
+                        if (next == ids.length || ids[next] != id) continue;
+                        current = id;
+                    }
+                    if (count == grades.length) grades = Arrays.copyOf(grades, count * 2);
+                    grades[count++] = (byte) rs.getInt(2);
+                }
+            }
+            if (count > 0) sink.grades(current, grades, count);
+        } catch (SQLException e) {
+            throw new IOException("Could not scan grades", e);
+        }
+    }
+
+    @Override
+    public void save(List<StudentRow> rows, Collection<Integer> deletes) throws IOException {
+        try {
+            connection.setAutoCommit(false);
+
+            try (PreparedStatement delete = connection.prepareStatement("DELETE FROM students WHERE ID = ?");
+                 PreparedStatement deleteGrades = connection.prepareStatement(
+                     "DELETE FROM student_grades WHERE student_id = ?");
+                 PreparedStatement upsert = connection.prepareStatement(UPSERT_SQL);
+                 PreparedStatement insertGrade = connection.prepareStatement(
+                     "INSERT OR REPLACE INTO student_grades (student_id, seq, grade) VALUES (?, ?, ?)")) {
+
+                int batched = 0;
+                for (int id : deletes) {
+                    delete.setInt(1, id);
+                    delete.addBatch();
+                    deleteGrades.setInt(1, id);
+                    deleteGrades.addBatch();
+                    if (++batched % BATCH_SIZE == 0) {
+                        delete.executeBatch();
+                        deleteGrades.executeBatch();
+                    }
+                }
+                delete.executeBatch();
+                deleteGrades.executeBatch();
+
+                batched = 0;
+                int gradesBatched = 0;
+                for (StudentRow row : rows) {
+                    double average = Math.round(row.averageGrade() * 10) / 10.0;
+
+                    upsert.setInt(1, row.id());
+                    upsert.setString(2, row.group().getLabel());
+                    upsert.setString(3, row.firstName());
+                    upsert.setString(4, row.lastName());
+                    upsert.setInt(5, row.birthYear());
+                    upsert.setDouble(6, average);
+                    upsert.setInt(7, row.gradeCount());
+                    upsert.setInt(8, row.gradeSum());
+                    upsert.addBatch();
+                    if (++batched % BATCH_SIZE == 0) upsert.executeBatch();
+
+                    // Only grades appended since the last save are new rows.
+                    byte[] newGrades = row.newGrades();
+                    for (int i = 0; i < newGrades.length; i++) {
+                        insertGrade.setInt(1, row.id());
+                        insertGrade.setInt(2, row.firstNewGrade() + i);
+                        insertGrade.setInt(3, newGrades[i]);
+                        insertGrade.addBatch();
+                        if (++gradesBatched % BATCH_SIZE == 0) insertGrade.executeBatch();
+                    }
+                }
+                upsert.executeBatch();
+                insertGrade.executeBatch();
+                try (Statement stmt = connection.createStatement()) {
+                    stmt.executeUpdate("UPDATE meta SET value = value + 1 WHERE key = 'generation'");
+                }
+                long saved = readMeta("generation");
+                connection.commit();
+                generation = saved;
+            }
+        } catch (SQLException e) {
+            try {
+                connection.rollback();
+            } catch (SQLException ex) {
+                e.addSuppressed(ex);
+            }
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            try {
+                connection.setAutoCommit(true);
+            } catch (SQLException e) {
+                System.out.println("Auto-commit reset failed");
+            }
+        }
+    }
+
+    // Filters on the students table; the average is worked out from the grade
+    // summary rather than the rounded AverageGrade column.
+    @Override
+    public int[] select(StudentQuery query) throws IOException {
+        if (connection == null) return null;
+        StringBuilder sql = new StringBuilder("SELECT ID FROM students WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        appendFilters(sql, params, query);
+
+        try (PreparedStatement select = prepare(sql.toString(), params)) {
+            int[] ids = new int[64];
+            int count = 0;
+            try (ResultSet rs = select.executeQuery()) {
+                while (rs.next()) {
+                    if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+                    ids[count++] = rs.getInt(1);
+                }
+            }
+            return Arrays.copyOf(ids, count);
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Map<StudentGroup, long[]> countGrades() throws IOException {
+        if (connection == null) return null;
+        Map<StudentGroup, long[]> counts = new EnumMap<>(StudentGroup.class);
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery(
+                 "SELECT s.StudentGroup, g.grade, COUNT(*) FROM student_grades g " +
+                 "JOIN students s ON s.ID = g.student_id GROUP BY s.StudentGroup, g.grade")) {
+            while (rs.next()) {
+                int grade = rs.getInt(2);
+                if (grade < GradeDistribution.MIN_GRADE || grade > GradeDistribution.MAX_GRADE) continue;
+                counts.computeIfAbsent(StudentGroup.fromLabel(rs.getString(1)),
+                        g -> new long[GradeDistribution.MAX_GRADE + 1])[grade] += rs.getLong(3);
+            }
+            return counts;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Returns false when a filter was left out and only the caller's matches() can apply it.
+    // Rows are always written with the group label, so the group is an indexed equality.
+    private static boolean appendFilters(StringBuilder sql, List<Object> params, StudentQuery query) {
+        if (query.getGroup() != null) {
+            sql.append(" AND StudentGroup = ?");
+            params.add(query.getGroup().getLabel());
+        }
+        boolean complete = appendPrefix(sql, params, "FirstName", query.getFirstNamePrefix());
+        complete &= appendPrefix(sql, params, "LastName", query.getLastNamePrefix());
+        if (query.hasBirthYearRange()) {
+            sql.append(" AND BirthYear BETWEEN ? AND ?");
+            params.add(query.getMinBirthYear());
+            params.add(query.getMaxBirthYear());
+        }
+        if (query.hasAverageRange()) {
+            sql.append(" AND ").append(AVERAGE_SQL).append(" BETWEEN ? AND ?");
+            params.add(Math.max(query.getMinAverage(), -Double.MAX_VALUE));
+            params.add(Math.min(query.getMaxAverage(), Double.MAX_VALUE));
+        }
+        return complete;
+    }
+
+    private PreparedStatement prepare(String sql, List<Object> params) throws SQLException {
+        if (connection == null) throw new SQLException(describe() + " is closed");
+        PreparedStatement statement = connection.prepareStatement(sql);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        statement.setFetchSize(FETCH_SIZE);
+        return statement;
+    }
+
+    // LIKE ignores case for ASCII letters only, so other prefixes are left to
+    // the in-memory check that follows.
+    private static boolean appendPrefix(StringBuilder sql, List<Object> params, String column, String prefix) {
+        if (prefix == null || prefix.isEmpty()) return true;
+        for (int i = 0; i < prefix.length(); i++) {
+            if (prefix.charAt(i) >= 0x80) return false;
+        }
+        sql.append(" AND ").append(column).append(" LIKE ? ESCAPE '\\'");
+        params.add(prefix.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        return true;
+    }
+
+    @Override
+    public int maxId(StudentGroup group) throws IOException {
+        try (PreparedStatement query = prepare(
+                "SELECT MAX(ID) FROM students WHERE StudentGroup = ?", List.of(group.getLabel()));
+             ResultSet rs = query.executeQuery()) {
+            rs.next();
+            int max = rs.getInt(1);
+            return rs.wasNull() ? -1 : max;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Student fetch(int id, GradeLoader grades) throws IOException {
+        List<Student> found = fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE ID = ?", List.of(id), grades);
+        return found.isEmpty() ? null : found.get(0);
+    }
+
+    @Override
+    public int count(StudentGroup group) throws IOException {
+        try (PreparedStatement query = prepare(
+                "SELECT COUNT(*) FROM students WHERE StudentGroup = ?", List.of(group.getLabel()));
+             ResultSet rs = query.executeQuery()) {
+            return rs.next() ? rs.getInt(1) : 0;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    // Graded students are exactly those with a positive average, which keeps
+    // the query inside the average index.
+    @Override
+    public double averageOfAverages(StudentGroup group) throws IOException {
+        try (PreparedStatement query = prepare(
+                "SELECT AVG(" + AVERAGE_SQL + ") FROM students WHERE StudentGroup = ? AND " + AVERAGE_SQL + " > 0",
+                List.of(group.getLabel()));
+             ResultSet rs = query.executeQuery()) {
+            return rs.next() ? rs.getDouble(1) : 0.0;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public List<Student> sorted(StudentGroup group, StudentOrder order, boolean descending, int offset, int limit,
+                                GradeLoader grades) throws IOException {
+        String direction = descending ? " DESC" : "";
+        String key = switch (order) {
+            case LAST_NAME -> "LastName" + direction + ", ";
+            case ID -> "";
+            case AVERAGE -> AVERAGE_SQL + direction + ", ";
+        };
+        return fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE StudentGroup = ? " +
+                "ORDER BY " + key + "ID" + direction + " LIMIT ? OFFSET ?",
+                List.of(group.getLabel(), limit, offset), grades);
+    }
+
+    @Override
+    public List<Student> page(int afterId, int limit, GradeLoader grades) throws IOException {
+        return fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE ID > ? ORDER BY ID LIMIT ?",
+                List.of(afterId, limit), grades);
+    }
+
+    @Override
+    public List<Student> averageRange(StudentGroup group, double min, double max, GradeLoader grades)
+            throws IOException {
+        return fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE StudentGroup = ? AND " +
+                AVERAGE_SQL + " BETWEEN ? AND ? ORDER BY " + AVERAGE_SQL + ", ID",
+                List.of(group.getLabel(), Math.max(min, -Double.MAX_VALUE), Math.min(max, Double.MAX_VALUE)), grades);
+    }
+
+    @Override
+    public List<Student> idRange(StudentGroup group, int from, int to, GradeLoader grades) throws IOException {
+        return fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE StudentGroup = ? AND " +
+                "ID BETWEEN ? AND ? ORDER BY ID", List.of(group.getLabel(), from, to), grades);
+    }
+
+    // GLOB matches case-sensitively and can use the last-name index.
+    @Override
+    public List<Student> lastNamePrefix(StudentGroup group, String prefix, GradeLoader grades) throws IOException {
+        String pattern = prefix.replace("[", "[[]").replace("*", "[*]").replace("?", "[?]") + "*";
+        return fetchAll("SELECT " + STUDENT_COLUMNS + " FROM students WHERE StudentGroup = ? AND " +
+                "LastName GLOB ? ORDER BY LastName, ID", List.of(group.getLabel(), pattern), grades);
+    }
+
+    @Override
+    public List<Student> select(StudentQuery query, GradeLoader grades) throws IOException {
+        StringBuilder sql = new StringBuilder("SELECT " + STUDENT_COLUMNS + " FROM students WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        boolean complete = appendFilters(sql, params, query);
+        sql.append(" ORDER BY ID");
+        if (complete && query.getLimit() < Integer.MAX_VALUE) {
+            sql.append(" LIMIT ?");
+            params.add(query.getLimit());
+        }
+        return fetchAll(sql.toString(), params, grades);
+    }
+
+    private List<Student> fetchAll(String sql, List<Object> params, GradeLoader grades) throws IOException {
+        List<Student> result = new ArrayList<>();
+        try (PreparedStatement query = prepare(sql, params);
+             ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                Student student = readStudent(rs);
+                student.setGradeSummary(rs.getInt("GradeCount"), rs.getInt("GradeSum"), grades);
+                result.add(student);
+            }
+            return result;
+        } catch (SQLException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void checkpoint(Collection<Student> roster) throws IOException {
+        if (snapshot == null || connection == null || snapshotGeneration == generation) return;
+        if (RosterSnapshot.write(snapshot, instance, generation, roster)) {
+            snapshotGeneration = generation;
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (connection != null) {
+                connection.close();
+            }
+        } catch (SQLException e) {
+            System.out.println("Error closing connection: " + e.getMessage());
+        } finally {
+            connection = null;
+            gradeQuery = null;
+            gradeRangeQuery = null;
+        }
+    }
+}
\ No newline at end of file
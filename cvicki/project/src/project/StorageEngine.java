@@ -0,0 +1,110 @@
+package project;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+// Where a StudentDatabase keeps its roster. StudentDatabase serializes all calls
+// into an engine, so implementations need no locking of their own.
+interface StorageEngine extends AutoCloseable {
+    String STORAGE_PROPERTY = "university.storage";
+
+    // Short description for messages, e.g. "SQLite university.db".
+    String describe();
+
+    // False when nothing survives a restart, so there is no point in flushing.
+    boolean isPersistent();
+
+    // True when load() leaves grades to be fetched on first use through the loader.
+    boolean isLazy();
+
+    // Streams every stored student into the sink with savedGradeCount set.
+    void load(Consumer<Student> sink, GradeLoader lazyGrades) throws IOException;
+
+    void loadGrades(Student student) throws IOException;
+
+    // Hands the stored grades of the given students (IDs ascending) to the sink
+    // in ID order, without attaching them to anybody, in one pass over storage
+    // instead of a query per student. Students without grades are skipped. Only
+    // a lazy engine leaves grades in storage, so only a lazy engine needs it.
+    default void scanGrades(int[] ids, GradeSink sink) throws IOException {
+        throw new IOException(describe() + " cannot scan grades");
+    }
+
+    // Applies deletes and then upserts as one unit; on failure nothing is applied.
+    void save(List<StudentRow> upserts, Collection<Integer> deletes) throws IOException;
+
+    default void upsert(StudentRow row) throws IOException {
+        save(List.of(row), Set.of());
+    }
+
+    default void delete(int id) throws IOException {
+        save(List.of(), Set.of(id));
+    }
+
+    // Non-null when the roster is to be queried where it is stored rather than loaded.
+    default StoredRoster storedRoster() {
+        return null;
+    }
+
+    // IDs of stored students that may match the query, or null when the engine
+    // cannot filter and the caller has to scan the roster itself.
+    default int[] select(StudentQuery query) throws IOException {
+        return null;
+    }
+
+    // How often each grade (the array index) was given per group, counted in
+    // storage so lazy grades need not be loaded. Null when the engine cannot.
+    default Map<StudentGroup, long[]> countGrades() throws IOException {
+        return null;
+    }
+
+    // Called on close with the whole roster once everything has been saved; an
+    // engine may keep an image of it to start faster next time. A stored roster
+    // is not held by StudentDatabase, so the collection is empty then.
+    default void checkpoint(Collection<Student> roster) throws IOException {
+    }
+
+    @Override
+    void close();
+
+    // Engine name from -Duniversity.storage, defaulting to SQLite.
+    static String configured() {
+        return System.getProperty(STORAGE_PROPERTY, "sqlite");
+    }
+
+    // Opens the named engine ("sqlite", "sql", "columnar", "columnar-direct", "log"
+    // or "memory"); "sql" is SQLite queried in place without loading the roster,
+    // and the columnar ones keep it in columns, on or off the heap, in front of
+    // SQLite. A persistent engine that cannot be opened falls back to memory,
+    // with a warning nobody can miss.
+    static StorageEngine open(String kind, String path, boolean lazy) {
+        String name = kind.toLowerCase(Locale.ROOT);
+        try {
+            return switch (name) {
+                case "sqlite" -> new SqliteStorage(path, lazy);
+                case "sql" -> new SqliteStorage(path, true, false, true);
+                case "columnar" -> new ColumnarStorage(path, false);
+                case "columnar-direct" -> new ColumnarStorage(path, true);
+                case "log" -> new LogStorage(path);
+                case "memory" -> new MemoryStorage();
+                default -> throw new IllegalArgumentException(
+                    "Unknown storage engine '" + kind + "' (expected sqlite, sql, columnar, columnar-direct, log or memory)");
+            };
+        } catch (IOException e) {
+            return fallBack(name + " storage at " + path + " could not be opened: " + e.getMessage());
+        }
+    }
+
+    static StorageEngine fallBack(String reason) {
+        System.err.println();
+        System.err.println("*** WARNING: " + reason);
+        System.err.println("*** Falling back to IN-MEMORY storage. NOTHING WILL BE SAVED when the program exits.");
+        System.err.println();
+        return new MemoryStorage();
+    }
+}
\ No newline at end of file
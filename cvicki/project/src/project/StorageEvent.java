@@ -0,0 +1,28 @@
+package project;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+// JFR event around every call into the storage engine. Costs next to nothing
+// unless a recording has it enabled, e.g. java -XX:StartFlightRecording ...
+@Name("project.StorageOperation")
+@Label("Storage Operation")
+@Category({"University", "Storage"})
+@Description("Load, save or lookup against the roster storage engine")
+class StorageEvent extends Event {
+    @Label("Operation")
+    String operation;
+
+    @Label("Engine")
+    String engine;
+
+    @Label("Rows")
+    @Description("Students written, or students read where known")
+    int rows;
+
+    @Label("Failed")
+    boolean failed;
+}
\ No newline at end of file
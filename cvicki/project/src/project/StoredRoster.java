@@ -0,0 +1,37 @@
+package project;
+
+import java.io.IOException;
+import java.util.List;
+
+// A roster that is queried where it is stored instead of being loaded. Every
+// student handed out is a fresh object with lazy grades; StudentDatabase keeps
+// one object per student while it is in use. Results reflect saved data only.
+interface StoredRoster {
+    // Highest stored ID in the group, or -1 when the group is empty.
+    int maxId(StudentGroup group) throws IOException;
+
+    Student fetch(int id, GradeLoader grades) throws IOException;
+
+    int count(StudentGroup group) throws IOException;
+
+    // Mean of the averages of graded students, like GroupStats.
+    double averageOfAverages(StudentGroup group) throws IOException;
+
+    List<Student> sorted(StudentGroup group, StudentOrder order, boolean descending, int offset, int limit,
+                         GradeLoader grades) throws IOException;
+
+    // Students with IDs above afterId in ID order, for walking the whole roster page by page.
+    List<Student> page(int afterId, int limit, GradeLoader grades) throws IOException;
+
+    // Same orders and bounds as the GroupOrder methods of the same names.
+    List<Student> averageRange(StudentGroup group, double min, double max, GradeLoader grades) throws IOException;
+
+    List<Student> idRange(StudentGroup group, int from, int to, GradeLoader grades) throws IOException;
+
+    // Case-sensitive, in last-name order.
+    List<Student> lastNamePrefix(StudentGroup group, String prefix, GradeLoader grades) throws IOException;
+
+    // Candidates for the query in ID order. The limit is applied when every
+    // filter could be expressed in storage, so callers must still check matches().
+    List<Student> select(StudentQuery query, GradeLoader grades) throws IOException;
+}
\ No newline at end of file
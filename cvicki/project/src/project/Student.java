@@ -1,36 +1,131 @@
 package project;
 
 import java.io.Serializable;
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
 public abstract class Student implements Serializable {
+    private static final byte[] NO_GRADES = new byte[0];
+
     protected int id;
     protected String firstName;
     protected String lastName;
     protected int birthYear;
-    protected List<Integer> grades;
+    protected byte[] grades = NO_GRADES;
+    // Grade count in the high half and grade sum in the low half, so readers on
+    // other threads always see a matching pair without taking the lock.
+    private volatile long gradeSummary;
+    protected transient volatile StudentListener listener;
+    transient int savedGradeCount;
+    transient GradeLoader gradeLoader;
 
     public Student(int id, String firstName, String lastName, int birthYear) {
         this.id = id;
         this.firstName = firstName;
         this.lastName = lastName;
         this.birthYear = birthYear;
-        this.grades = new ArrayList<>();
     }
 
     public int getId() { return id; }
     public String getFirstName() { return firstName; }
     public String getLastName() { return lastName; }
     public int getBirthYear() { return birthYear; }
+    public int getGradeCount() { return (int) (gradeSummary >>> 32); }
+    int getGradeSum() { return (int) gradeSummary; }
+
+    // Grades may be released again between loading them and taking the lock,
+    // so each use checks under the lock and loads once more if they were.
+    public int getGrade(int index) {
+        while (true) {
+            ensureGradesLoaded();
+            synchronized (this) {
+                if (gradeLoader == null) return grades[index];
+            }
+        }
+    }
+
+    public int[] getGrades() {
+        while (true) {
+            ensureGradesLoaded();
+            synchronized (this) {
+                if (gradeLoader != null) continue;
+                int count = getGradeCount();
+                int[] result = new int[count];
+                for (int i = 0; i < count; i++) result[i] = grades[i];
+                return result;
+            }
+        }
+    }
 
     public void addGrade(int grade) {
-        if (grade >= 1 && grade <= 5) grades.add(grade);
+        if (grade >= 1 && grade <= 5) {
+            while (true) {
+                ensureGradesLoaded();
+                synchronized (this) {
+                    if (gradeLoader != null) continue;
+                    appendGrade(grade);
+                    if (listener != null) listener.gradeAdded(this, grade);
+                    return;
+                }
+            }
+        }
+    }
+
+    void appendGrade(int grade) {
+        int count = getGradeCount();
+        if (count == grades.length) {
+            grades = Arrays.copyOf(grades, Math.max(4, count * 2));
+        }
+        grades[count] = (byte) grade;
+        setSummary(count + 1, getGradeSum() + grade);
+    }
+
+    private void setSummary(int count, int sum) {
+        gradeSummary = ((long) count << 32) | (sum & 0xFFFFFFFFL);
+    }
+
+    void setGradeSummary(int count, int sum, GradeLoader loader) {
+        setSummary(count, sum);
+        savedGradeCount = count;
+        gradeLoader = count > 0 ? loader : null;
+    }
+
+    synchronized void setLoadedGrades(byte[] loaded, int count) {
+        int sum = 0;
+        for (int i = 0; i < count; i++) sum += loaded[i];
+        grades = loaded;
+        setSummary(count, sum);
+        gradeLoader = null;
+    }
+
+    // Drops grades that storage holds every one of, so they are loaded again
+    // when next used. False for a student with unsaved grades or one removed.
+    synchronized boolean releaseGrades(GradeLoader loader) {
+        int count = getGradeCount();
+        if (gradeLoader != null || listener == null || count == 0 || savedGradeCount != count) return false;
+        grades = NO_GRADES;
+        gradeLoader = loader;
+        return true;
+    }
+
+    private void ensureGradesLoaded() {
+        GradeLoader loader = gradeLoader;
+        if (loader != null) loader.loadGrades(this);
     }
 
     public double getAverageGrade() {
-        return grades.isEmpty() ? 0.0 : grades.stream().mapToInt(Integer::intValue).average().getAsDouble();
+        long summary = gradeSummary;
+        int count = (int) (summary >>> 32);
+        return count == 0 ? 0.0 : (double) (int) summary / count;
     }
 
+    // Average in hundredths, rounded half up like "%.2f" does.
+    int getAverageHundredths() {
+        long summary = gradeSummary;
+        long count = summary >>> 32;
+        return count == 0 ? 0 : (int) ((200L * (int) summary + count) / (2 * count));
+    }
+
+    public abstract StudentGroup getGroup();
+
     public abstract void performSkill();
 }
\ No newline at end of file
@@ -1,16 +1,66 @@
 package project;
 
-import java.sql.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.DoubleSummaryStatistics;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 class StudentDatabase {
-    private List<Student> students = new ArrayList<>();
-    private Connection connection;
-    private int telecomNextId = 10000;
-    private int cyberNextId = 20000;
+    private interface StoredQuery<T> {
+        T run(StoredRoster roster) throws IOException;
+    }
+
+    // A student with its grades; the array is only valid during the call.
+    interface GradedStudentConsumer {
+        void accept(Student student, byte[] grades, int count);
+    }
+
+    private static final int STORED_PAGE_SIZE = 1000;
+    // How many students of a lazy roster keep their grades in memory once loaded or saved.
+    private static final int LOADED_GRADES_LIMIT = 10_000;
+
+    private final StudentIndex students = new StudentIndex();
+    private final Object pendingLock = new Object();
+    private final Object storageLock = new Object();
+    private Map<Integer, Student> pendingUpserts = new LinkedHashMap<>();
+    private Set<Integer> pendingDeletes = new LinkedHashSet<>();
+    private volatile WriteBehindFlusher flusher;
+    private final Map<StudentGroup, GroupStats> groupStats = new EnumMap<>(StudentGroup.class);
+    private final Map<StudentGroup, GroupOrder> groupOrder = new EnumMap<>(StudentGroup.class);
+    private final QueryIndex queryIndex = new QueryIndex(students);
+    private final GradeAnalytics analytics = new GradeAnalytics();
+    private final StudentListener changeTracker = this::gradeAdded;
+    private final GradeLoader gradeLoader = this::loadGrades;
+    // Both are replaced by memory storage, before the database is in use, when
+    // the roster cannot be loaded: saving over storage that could not be read
+    // would bury what is still in it.
+    private StorageEngine storage;
+    // Set when the roster stays in storage; students then live in resident only
+    // while in use, and the in-memory statistics and indexes stay empty.
+    private StoredRoster stored;
+    private final ResidentStudents resident = new ResidentStudents();
+    // Null unless grades are loaded on demand; guarded by storageLock.
+    private LoadedGrades loadedGrades;
+    private final OperationMetrics metrics = new OperationMetrics();
+    // Null when changes are not journaled; replaying is set while a journal
+    // is being read back into the roster, so its records are not written again.
+    private final MutationLog journal;
+    private volatile boolean replaying;
+    // Set under the storage lock while the journal's new file gets its image.
+    private volatile boolean imaging;
+    private boolean closed;
+    private final AtomicInteger telecomNextId = new AtomicInteger(10000);
+    private final AtomicInteger cyberNextId = new AtomicInteger(20000);
     private String dbName;
 
     public StudentDatabase() {
@@ -18,199 +68,878 @@ class StudentDatabase {
     }
     
     public StudentDatabase(String dbName) {
+        this(dbName, false);
+    }
+
+    public StudentDatabase(String dbName, boolean lazy) {
+        this(dbName, StorageEngine.open(StorageEngine.configured(), dbName, lazy), MutationLog.configured());
+    }
+
+    public StudentDatabase(String dbName, StorageEngine storage) {
+        this(dbName, storage, false);
+    }
+
+    // A journaled database records every change in <dbName>.journal as it is
+    // made, and on opening replays the changes the last save did not reach.
+    public StudentDatabase(String dbName, StorageEngine storage, boolean journaled) {
         this.dbName = dbName;
-        initializeDatabase();
+        this.storage = storage;
+        this.stored = storage.storedRoster();
+        this.loadedGrades = storage.isLazy() && stored == null ? new LoadedGrades(LOADED_GRADES_LIMIT, gradeLoader) : null;
+        for (StudentGroup group : StudentGroup.values()) {
+            groupStats.put(group, new GroupStats());
+            groupOrder.put(group, new GroupOrder(students, group));
+        }
+        String failure = loadData();
+        if (failure != null) {
+            storage.close();
+            this.storage = StorageEngine.fallBack(storage.describe() + " could not be loaded: " + failure);
+            this.stored = null;
+            this.loadedGrades = null;
+            // whatever was read before the failure goes too, as its grades can no longer be loaded
+            for (Student student : students.toList()) {
+                students.remove(student.getId());
+            }
+            rebuildGroupStats();
+        }
+        this.journal = journaled && this.storage.isPersistent() ? openJournal(dbName) : null;
+        if (journal != null) recoverFromJournal();
+    }
+
+    // Applies journal records to the roster. A record is applied only where the
+    // roster does not show it yet, so records storage already holds change nothing:
+    // a student is added only if absent, and a grade only at the index it had.
+    private final MutationLog.Visitor replayer = new MutationLog.Visitor() {
+        @Override
+        public void added(long sequence, long time, Student student) {
+            if (lookup(student.getId()) == null) restore(student);
+        }
+
+        @Override
+        public void gradeAdded(long sequence, long time, int id, int index, int grade) {
+            Student student = lookup(id);
+            if (student != null && student.getGradeCount() == index) student.addGrade(grade);
+        }
+
+        @Override
+        public void removed(long sequence, long time, int id) {
+            removeStudent(id);
+        }
+    };
+
+    private static MutationLog openJournal(String dbName) {
+        try {
+            return new MutationLog(MutationLog.pathFor(dbName));
+        } catch (IOException e) {
+            System.out.println("Journal for " + dbName + " could not be opened, changes are not journaled: " + e.getMessage());
+            return null;
+        }
+    }
+
+    // A new journal starts with the roster as it is, so that it can rebuild any
+    // later state on its own; see writeImage for when it does not.
+    private void recoverFromJournal() {
+        if (journal.isEmpty()) {
+            writeImage();
+            journal.checkpoint(journal.mark());
+            return;
+        }
+        replaying = true;
+        try {
+            journal.replayUnsaved(replayer);
+        } catch (IOException e) {
+            System.out.println("Journal replay failed: " + e.getMessage());
+        } finally {
+            replaying = false;
+        }
     }
     
     public String getDbName() {
         return dbName;
     }
 
-    private void initializeDatabase() {
-        try {
-            Class.forName("org.sqlite.JDBC");
-            connection = DriverManager.getConnection(
-            	    "jdbc:sqlite:" + dbName + 
-            	    "?busy_timeout=5000" +
-            	    "&journal_mode=WAL" +
-            	    "&synchronous=NORMAL"
-            	);
-            createTables();
-            loadData();
-        } catch (Exception e) {
-            System.out.println("Database connection error. Using in-memory storage.");
-            e.printStackTrace();
+    public boolean isLazy() {
+        return storage.isLazy();
+    }
+
+    public String getStorageDescription() {
+        return storage.describe();
+    }
+
+    public OperationMetrics getMetrics() {
+        return metrics;
+    }
+
+    private void commit(StorageEvent event, String operation, int rows, boolean failed) {
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.engine = storage.describe();
+            event.rows = rows;
+            event.failed = failed;
+            event.commit();
         }
     }
-    
-    public Connection getConnection() {
-        return this.connection;
-    }
-
-    private void createTables() throws SQLException {
-        try (Statement stmt = connection.createStatement()) {
-            ResultSet rs = connection.getMetaData().getTables(null, null, "students", null);
-            if (!rs.next()) {
-                stmt.execute("CREATE TABLE students (" +
-                        "ID INT PRIMARY KEY, " +
-                        "StudentGroup VARCHAR(20), " +
-                        "FirstName VARCHAR(50), " +
-                        "LastName VARCHAR(50), " +
-                        "BirthYear INT, " +
-                        "Grades TEXT, " +
-                        "AverageGrade REAL)");
-            } else {
-                try {
-                    stmt.executeQuery("SELECT AverageGrade FROM students LIMIT 1");
-                } catch (SQLException e) {
-                    stmt.execute("ALTER TABLE students ADD COLUMN AverageGrade REAL");
-                }
+
+    // Returns why the roster could not be loaded, or null when it was.
+    private String loadData() {
+        long start = metrics.start(OperationMetrics.Operation.LOAD);
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        String failure = null;
+        if (stored != null) {
+            try {
+                telecomNextId.accumulateAndGet(stored.maxId(StudentGroup.TELECOM) + 1, Math::max);
+                cyberNextId.accumulateAndGet(stored.maxId(StudentGroup.CYBER_SECURITY) + 1, Math::max);
+            } catch (IOException e) {
+                failure = e.getMessage();
             }
+            commit(event, "load", 0, failure != null);
+            metrics.record(OperationMetrics.Operation.LOAD, start);
+            return failure;
+        }
+        try {
+            storage.load(student -> {
+                AtomicInteger nextId = student instanceof TelecomStudent ? telecomNextId : cyberNextId;
+                nextId.accumulateAndGet(student.getId() + 1, Math::max);
+                student.listener = changeTracker;
+                students.add(student);
+            }, gradeLoader);
+        } catch (IOException e) {
+            failure = e.getMessage();
         }
+        commit(event, "load", students.size(), failure != null);
+
+        rebuildGroupStats();
+        metrics.record(OperationMetrics.Operation.LOAD, start);
+        return failure;
     }
 
-    private void loadData() {
-        if (connection == null) return;
+    private void rebuildGroupStats() {
+        groupStats.values().forEach(GroupStats::clear);
+        groupOrder.values().forEach(GroupOrder::clear);
+        queryIndex.clear();
+        analytics.clear();
+        List<Student> lazyGrades = new ArrayList<>();
+        students.forEach(s -> {
+            groupStats.get(s.getGroup()).studentAdded(s);
+            boolean loaded = s.gradeLoader == null;
+            analytics.studentAdded(s, loaded);
+            if (!loaded) lazyGrades.add(s);
+        });
+        if (!lazyGrades.isEmpty()) countLazyGrades(lazyGrades);
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery("SELECT * FROM students")) {
-            while (rs.next()) {
-                Student student;
-                int id = rs.getInt("ID");
-                String type = rs.getString("StudentGroup");
-                String firstName = rs.getString("FirstName");
-                String lastName = rs.getString("LastName");
-                int birthYear = rs.getInt("BirthYear");
+    // A lazy load leaves every graded student unloaded, so the stored counts
+    // cover exactly the grades skipped above.
+    private void countLazyGrades(List<Student> unloaded) {
+        Map<StudentGroup, long[]> counts = null;
+        try {
+            counts = storage.countGrades();
+        } catch (IOException e) {
+            System.out.println("Grade counts not available: " + e.getMessage());
+        }
+        if (counts != null) {
+            analytics.addGradeCounts(counts);
+            return;
+        }
+        for (Student student : unloaded) {
+            long[] perGrade = new long[GradeDistribution.MAX_GRADE + 1];
+            for (int grade : student.getGrades()) perGrade[grade]++;
+            analytics.addGradeCounts(Map.of(student.getGroup(), perGrade));
+        }
+    }
 
-                if ("Telecom".equals(type)) {
-                    student = new TelecomStudent(id, firstName, lastName, birthYear);
-                    if (id >= telecomNextId) telecomNextId = id + 1;
-                } else {
-                    student = new CyberSecurityStudent(id, firstName, lastName, birthYear);
-                    if (id >= cyberNextId) cyberNextId = id + 1;
-                }
+    private void gradeAdded(Student student, int grade) {
+        synchronized (pendingLock) {
+            pendingUpserts.put(student.getId(), student);
+            pendingChanged();
+        }
+        // A student still being registered is journaled with this grade once its ID is final.
+        if (journal != null && !replaying && isRegistered(student)) {
+            journal.gradeAdded(student.getId(), student.getGradeCount() - 1, grade);
+        }
+        if (stored != null) return;
+        groupStats.get(student.getGroup()).gradeAdded(student, grade);
+        groupOrder.get(student.getGroup()).gradeAdded(student, grade);
+        analytics.gradeAdded(student, grade);
+    }
 
-                String grades = rs.getString("Grades");
-                if (grades != null && !grades.isEmpty()) {
-                    Arrays.stream(grades.split(",\\s*"))
-                          .map(Integer::parseInt)
-                          .forEach(student::addGrade);
-                }
+    private void pendingChanged() {
+        WriteBehindFlusher f = flusher;
+        if (f != null && pendingUpserts.size() + pendingDeletes.size() >= f.getBatchSize()) {
+            f.requestFlush();
+        }
+    }
 
-                students.add(student);
+    public void startFlusher(long intervalMillis, int batchSize) {
+        if (!storage.isPersistent() || flusher != null) return;
+        flusher = new WriteBehindFlusher(this, intervalMillis, batchSize);
+        flusher.start();
+    }
+
+    public void stopFlusher() {
+        WriteBehindFlusher f = flusher;
+        if (f != null) {
+            flusher = null;
+            f.stop();
+        }
+    }
+
+    private void loadGrades(Student student) {
+        synchronized (storageLock) {
+            if (student.gradeLoader == null) return;
+            if (closed) {
+                throw new IllegalStateException("Grades for student " + student.getId() + " are not available offline");
+            }
+            long start = metrics.start(OperationMetrics.Operation.LOAD_GRADES);
+            StorageEvent event = new StorageEvent();
+            event.begin();
+            try {
+                storage.loadGrades(student);
+            } catch (IOException e) {
+                commit(event, "loadGrades", 1, true);
+                throw new UncheckedIOException(e);
+            } finally {
+                metrics.record(OperationMetrics.Operation.LOAD_GRADES, start);
             }
-        } catch (SQLException e) {
-            System.out.println("Load error");
-            e.printStackTrace();
+            commit(event, "loadGrades", 1, false);
+            if (loadedGrades != null) loadedGrades.touched(student);
         }
     }
 
     public void saveData() {
-        if (connection == null) return;
-
+        long start = metrics.start(OperationMetrics.Operation.SAVE);
         try {
-            connection.setAutoCommit(false);
-
-            try (Statement stmt = connection.createStatement();
-                 PreparedStatement pstmt = connection.prepareStatement(
-                     "INSERT INTO students VALUES (?, ?, ?, ?, ?, ?, ?)")) {
-
-                stmt.execute("DELETE FROM students");
+            // outside the storage lock, as it visits every student
+            if (save()) writeImage();
+        } finally {
+            metrics.record(OperationMetrics.Operation.SAVE, start);
+        }
+    }
 
-                for (Student student : students) {
-                    String type = student instanceof TelecomStudent ? "Telecom" : "CyberSecurity";
+    // True when the journal moved to a new file that still needs its image.
+    private boolean save() {
+        synchronized (storageLock) {
+            if (closed) return false;
 
-                    String grades = student.grades.stream()
-                        .map(String::valueOf)
-                        .reduce((a, b) -> a + ", " + b)
-                        .orElse("");
+            Map<Integer, Student> upserts;
+            Set<Integer> deletes;
+            MutationLog.Mark mark;
+            synchronized (pendingLock) {
+                if (pendingUpserts.isEmpty() && pendingDeletes.isEmpty()) return false;
+                upserts = pendingUpserts;
+                deletes = pendingDeletes;
+                pendingUpserts = new LinkedHashMap<>();
+                pendingDeletes = new LinkedHashSet<>();
+                // every change is journaled after it is pending, so all before the mark are in this save
+                mark = journal != null ? journal.mark() : null;
+            }
+            if (!storage.isPersistent()) return false;
 
-                    double average = Math.round(student.getAverageGrade() * 10) / 10.0;
+            List<StudentRow> rows = new ArrayList<>(upserts.size());
+            for (Student student : upserts.values()) {
+                rows.add(StudentRow.capture(student));
+            }
 
-                    pstmt.setInt(1, student.getId());
-                    pstmt.setString(2, type);
-                    pstmt.setString(3, student.getFirstName());
-                    pstmt.setString(4, student.getLastName());
-                    pstmt.setInt(5, student.getBirthYear());
-                    pstmt.setString(6, grades);
-                    pstmt.setDouble(7, average);
-                    pstmt.executeUpdate();
+            if (!write(rows, deletes)) return false;
+            if (loadedGrades != null) {
+                for (StudentRow row : rows) {
+                    loadedGrades.touched(row.student());
                 }
-                connection.commit();
-            }
-        } catch (SQLException e) {
-            try {
-                connection.rollback();
-                System.out.println("Save error: " + e.getMessage());
-            } catch (SQLException ex) {
-                System.out.println("Rollback failed: " + ex.getMessage());
             }
+            if (mark == null) return false;
+            journal.checkpoint(mark);
+            // no other save is between its mark and its checkpoint while the lock is held;
+            // nor may a roll come while an image is being written, or it would be split
+            if (imaging || !journal.roll()) return false;
+            imaging = true;
+            return true;
+        }
+    }
+
+    // Writes every student into the journal and then an IMAGE record, so the
+    // journal file can rebuild the roster from there on its own. Only for a
+    // roster held in memory: a lazy or stored one would have to read all of
+    // storage for it, so its journal only serves to recover unsaved changes.
+    private void writeImage() {
+        try {
+            if (stored != null || storage.isLazy()) return;
+            students.forEach(this::journalAdded);
+            journal.image();
         } finally {
-            try {
-                connection.setAutoCommit(true);
-            } catch (SQLException e) {
-                System.out.println("Auto-commit reset failed");
+            imaging = false;
+        }
+    }
+
+    private boolean write(List<StudentRow> rows, Set<Integer> deletes) {
+        StorageEvent event = new StorageEvent();
+        event.begin();
+        try {
+            storage.save(rows, deletes);
+            commit(event, "save", rows.size() + deletes.size(), false);
+            return true;
+        } catch (IOException e) {
+            commit(event, "save", rows.size() + deletes.size(), true);
+            System.out.println("Save error: " + e.getMessage());
+            requeue(rows, deletes);
+            return false;
+        }
+    }
+
+    private void requeue(List<StudentRow> rows, Set<Integer> deletes) {
+        for (StudentRow row : rows) {
+            synchronized (row.student()) {
+                row.student().savedGradeCount = Math.min(row.student().savedGradeCount, row.firstNewGrade());
             }
         }
+        synchronized (pendingLock) {
+            for (StudentRow row : rows) {
+                if (row.student().listener != null) {
+                    pendingUpserts.putIfAbsent(row.id(), row.student());
+                }
+            }
+            pendingDeletes.addAll(deletes);
+        }
     }
 
     public int getNextTelecomId() {
-        return telecomNextId; 
+        return telecomNextId.get();
     }
 
     public int getNextCyberId() {
-        return cyberNextId; 
+        return cyberNextId.get();
     }
 
     public void addStudent(Student student) {
-        if (student instanceof TelecomStudent) {
-            student.id = telecomNextId++;
+        long start = metrics.start(OperationMetrics.Operation.ADD);
+        register(student, false);
+        synchronized (pendingLock) {
+            pendingUpserts.put(student.getId(), student);
+            pendingChanged();
+        }
+        journalAdded(student);
+        metrics.record(OperationMetrics.Operation.ADD, start);
+    }
+
+    // Under the student's lock, so the record has the grades the student has
+    // now and cannot come after the record of its removal.
+    private void journalAdded(Student student) {
+        if (journal == null || replaying) return;
+        synchronized (student) {
+            if (student.listener != null) journal.added(student);
+        }
+    }
+
+    private boolean isRegistered(Student student) {
+        return (stored != null ? resident.get(student.getId()) : students.get(student.getId())) == student;
+    }
+
+    public void importStudents(List<Student> batch) {
+        long start = metrics.start(OperationMetrics.Operation.IMPORT);
+        for (Student student : batch) {
+            register(student, false);
+        }
+
+        synchronized (storageLock) {
+            if (closed || !storage.isPersistent()) {
+                synchronized (pendingLock) {
+                    for (Student student : batch) {
+                        pendingUpserts.put(student.getId(), student);
+                    }
+                }
+            } else {
+                List<StudentRow> rows = new ArrayList<>(batch.size());
+                for (Student student : batch) {
+                    rows.add(StudentRow.capture(student));
+                }
+                write(rows, Set.of());
+            }
+        }
+        for (Student student : batch) {
+            journalAdded(student);
+        }
+        metrics.record(OperationMetrics.Operation.IMPORT, start);
+    }
+
+    // With keepId the student keeps the ID it has, which must be free; the
+    // group's next ID moves past it.
+    private void register(Student student, boolean keepId) {
+        if (stored != null) {
+            registerStored(student, keepId);
+            return;
+        }
+        synchronized (student) {
+            student.listener = changeTracker;
+            groupStats.get(student.getGroup()).studentAdded(student);
+            analytics.studentAdded(student, true);
+        }
+
+        // The Telecom range runs into the CyberSecurity one after 10000 students,
+        // so an ID the other group already holds is skipped rather than reused.
+        AtomicInteger nextId = student instanceof TelecomStudent ? telecomNextId : cyberNextId;
+        if (keepId) {
+            nextId.accumulateAndGet(student.getId() + 1, Math::max);
+            students.add(student);
         } else {
-            student.id = cyberNextId++;
+            do {
+                student.id = nextId.getAndIncrement();
+            } while (!students.add(student));
+        }
+
+        // Filed only once the ID is final; a grade added in between is picked up
+        // here, and a student already removed again is left out.
+        synchronized (student) {
+            if (student.listener != null) {
+                groupOrder.get(student.getGroup()).studentAdded(student);
+                queryIndex.studentAdded(student);
+            }
+        }
+    }
+
+    private void registerStored(Student student, boolean keepId) {
+        student.listener = changeTracker;
+        AtomicInteger nextId = student instanceof TelecomStudent ? telecomNextId : cyberNextId;
+        if (keepId) {
+            nextId.accumulateAndGet(student.getId() + 1, Math::max);
+        } else {
+            do {
+                student.id = nextId.getAndIncrement();
+            } while (findStored(student.getId()) != null);
+        }
+        resident.adopt(student);
+    }
+
+    // A student taken from the journal, with the ID and grades it had there.
+    private void restore(Student student) {
+        register(student, true);
+        synchronized (pendingLock) {
+            pendingUpserts.put(student.getId(), student);
+            pendingChanged();
+        }
+        journalAdded(student);
+    }
+
+    private Student lookup(int id) {
+        return stored != null ? findStored(id) : students.get(id);
+    }
+
+    // The resident student, or the stored row made resident. A student removed
+    // but not yet deleted in storage is gone already.
+    private Student findStored(int id) {
+        Student student = resident.get(id);
+        if (student != null) return student;
+        synchronized (pendingLock) {
+            if (pendingDeletes.contains(id)) return null;
+        }
+        synchronized (storageLock) {
+            if (closed) return null;
+            Student fetched;
+            try {
+                fetched = stored.fetch(id, gradeLoader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            if (fetched == null) return null;
+            // A removal since the check above has marked the ID deleted, and no
+            // save can clear the mark while storage is held.
+            synchronized (pendingLock) {
+                return pendingDeletes.contains(id) ? null : adopt(fetched);
+            }
+        }
+    }
+
+    private Student adopt(Student fetched) {
+        fetched.listener = changeTracker;
+        return resident.adopt(fetched);
+    }
+
+    private List<Student> adoptAll(List<Student> fetched) {
+        fetched.replaceAll(this::adopt);
+        return fetched;
+    }
+
+    // Runs a query against storage once pending changes are written, so the
+    // result includes them.
+    private <T> T readStored(StoredQuery<T> query) {
+        saveData();
+        synchronized (storageLock) {
+            if (closed) throw new IllegalStateException(storage.describe() + " is closed");
+            try {
+                return query.run(stored);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
         }
-        students.add(student);
     }
 
     public Student findStudent(int id) {
-        return students.stream().filter(s -> s.getId() == id).findFirst().orElse(null);
+        long start = metrics.start(OperationMetrics.Operation.FIND);
+        Student student = lookup(id);
+        metrics.record(OperationMetrics.Operation.FIND, start);
+        return student;
     }
 
     public boolean removeStudent(int id) {
-        int initialSize = students.size();
-        students.removeIf(s -> s.getId() == id);
-        return students.size() < initialSize; 
+        long start = metrics.start(OperationMetrics.Operation.REMOVE);
+        try {
+            return stored != null ? removeStored(id) : removeLoaded(id);
+        } finally {
+            metrics.record(OperationMetrics.Operation.REMOVE, start);
+        }
+    }
+
+    private boolean removeStored(int id) {
+        Student student = findStored(id);
+        if (student == null) return false;
+        // Leaving the resident set and being marked deleted is one step, so a
+        // lookup finds either the student or the mark, and only one remover
+        // wins. Under the student's lock no grade can upsert it again.
+        synchronized (student) {
+            synchronized (pendingLock) {
+                if (!resident.remove(student)) return false;
+                pendingUpserts.remove(id);
+                pendingDeletes.add(id);
+                pendingChanged();
+            }
+            student.listener = null;
+        }
+        journalRemoved(id);
+        return true;
+    }
+
+    private boolean removeLoaded(int id) {
+        if (loadedGrades == null) return detachLoaded(id);
+        // The analytics take the student's grades out again, so lazy grades are
+        // loaded first: loading under the student's lock would take the storage
+        // lock in the wrong order. Holding it until the student is detached
+        // keeps a save from releasing the grades in between.
+        synchronized (storageLock) {
+            Student found = students.get(id);
+            if (found != null && found.gradeLoader != null) found.getGrades();
+            return detachLoaded(id);
+        }
+    }
+
+    private boolean detachLoaded(int id) {
+        Student student = students.remove(id);
+        if (student == null) return false;
+
+        // Detaching under the student's lock means no grade can slip into the
+        // group stats after the student has been taken out of them.
+        synchronized (student) {
+            student.listener = null;
+            groupStats.get(student.getGroup()).studentRemoved(student);
+            groupOrder.get(student.getGroup()).studentRemoved(student);
+            queryIndex.studentRemoved(student);
+            analytics.studentRemoved(student);
+        }
+        synchronized (pendingLock) {
+            pendingUpserts.remove(id);
+            pendingDeletes.add(id);
+            pendingChanged();
+        }
+        journalRemoved(id);
+        return true;
+    }
+
+    private void journalRemoved(int id) {
+        if (journal != null && !replaying) journal.removed(id);
+    }
+
+    // Brings this database up to date with a journal another database is
+    // writing, e.g. to keep a read copy in memory. Returns how far the tailer has read.
+    public long catchUp(MutationLog.Tailer tailer) throws IOException {
+        replaying = true;
+        try {
+            return tailer.poll(replayer);
+        } finally {
+            replaying = false;
+        }
+    }
+
+    // Replays a journal up to the given time, rebuilding the roster as it was
+    // then; meant for a database that starts out empty. Only the journals of
+    // rosters held in memory have the images this starts from.
+    public void rebuildFrom(Path journalFile, long untilMillis) throws IOException {
+        replaying = true;
+        try {
+            MutationLog.replay(journalFile, untilMillis, replayer);
+        } finally {
+            replaying = false;
+        }
     }
 
     public List<Student> getAllStudents() {
-        return new ArrayList<>(students); 
+        if (stored == null) return students.toList();
+        List<Student> all = new ArrayList<>();
+        forEachStudent(all::add);
+        return all;
+    }
+
+    // A stored roster is walked a page at a time, so storage is not held for the whole walk.
+    public void forEachStudent(Consumer<Student> action) {
+        if (stored == null) {
+            students.forEach(action);
+            return;
+        }
+        int after = Integer.MIN_VALUE;
+        while (true) {
+            int from = after;
+            List<Student> page = adoptAll(readStored(r -> r.page(from, STORED_PAGE_SIZE, gradeLoader)));
+            page.forEach(action);
+            if (page.size() < STORED_PAGE_SIZE) return;
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    // Walks the roster with every student's grades, in ID order on every
+    // engine. Grades still in storage are read a page at a time in one scan per
+    // page and handed over without being attached to the students, so a walk
+    // over a lazy roster neither queries per student nor leaves the grades behind.
+    public void forEachWithGrades(GradedStudentConsumer action) {
+        byte[][] scratch = {new byte[16]};
+        List<Student> roster = null;
+        if (stored == null) {
+            roster = students.toList();
+            roster.sort(Comparator.comparingInt(Student::getId));
+        }
+        int after = Integer.MIN_VALUE;
+        for (int index = 0; ; index += STORED_PAGE_SIZE) {
+            int from = after;
+            List<Student> page = roster != null
+                    ? roster.subList(Math.min(index, roster.size()), Math.min(index + STORED_PAGE_SIZE, roster.size()))
+                    : adoptAll(readStored(r -> r.page(from, STORED_PAGE_SIZE, gradeLoader)));
+            byte[][] storedGrades = scanGrades(page);
+            for (int i = 0; i < page.size(); i++) {
+                withGrades(page.get(i), storedGrades[i], scratch, action);
+            }
+            if (page.size() < STORED_PAGE_SIZE) return;
+            after = page.get(page.size() - 1).getId();
+        }
+    }
+
+    // The stored grades of the page's students that have not loaded theirs, by position.
+    private byte[][] scanGrades(List<Student> page) {
+        byte[][] grades = new byte[page.size()][];
+        int[] ids = new int[page.size()];
+        int unloaded = 0;
+        for (Student student : page) {
+            if (student.gradeLoader != null) ids[unloaded++] = student.getId();
+        }
+        if (unloaded == 0) return grades;
+        int[] next = {0};
+        synchronized (storageLock) {
+            if (closed) throw new IllegalStateException(storage.describe() + " is closed");
+            try {
+                storage.scanGrades(Arrays.copyOf(ids, unloaded), (id, scanned, count) -> {
+                    while (page.get(next[0]).getId() != id) next[0]++;
+                    grades[next[0]] = Arrays.copyOf(scanned, count);
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return grades;
+    }
+
+    private static void withGrades(Student student, byte[] storedGrades, byte[][] scratch, GradedStudentConsumer action) {
+        byte[] grades;
+        int count;
+        boolean released;
+        synchronized (student) {
+            // an unloaded student without stored grades was released after its page was scanned
+            released = student.gradeLoader != null && storedGrades == null && student.listener != null;
+            if (student.gradeLoader != null) {
+                // still unloaded, so the stored grades are all it has
+                grades = storedGrades == null ? scratch[0] : storedGrades;
+                count = storedGrades == null ? 0 : storedGrades.length;
+            } else {
+                count = student.getGradeCount();
+                if (count > scratch[0].length) scratch[0] = new byte[Math.max(count, scratch[0].length * 2)];
+                System.arraycopy(student.grades, 0, scratch[0], 0, count);
+                grades = scratch[0];
+            }
+        }
+        if (released) {
+            int[] loaded = student.getGrades();
+            count = loaded.length;
+            if (count > scratch[0].length) scratch[0] = new byte[Math.max(count, scratch[0].length * 2)];
+            for (int i = 0; i < count; i++) scratch[0][i] = (byte) loaded[i];
+            grades = scratch[0];
+        }
+        action.accept(student, grades, count);
     }
 
     public double getGroupAverage(String groupType) {
-        DoubleSummaryStatistics stats = students.stream()
-            .filter(s -> groupType.equals("Telecom") 
-                ? (s instanceof TelecomStudent) 
-                : (s instanceof CyberSecurityStudent))
-            .filter(s -> !s.grades.isEmpty()) 
-            .mapToDouble(Student::getAverageGrade)
-            .summaryStatistics();
-        
-        return stats.getCount() > 0 ? stats.getAverage() : 0.0;
+        StudentGroup group = StudentGroup.fromLabel(groupType);
+        if (stored != null) return readStored(r -> r.averageOfAverages(group));
+        return groupStats.get(group).getAverage();
     }
 
     public int getGroupCount(String groupType) {
-        return (int) students.stream()
-                .filter(s -> (groupType.equals("Telecom") ? (s instanceof TelecomStudent) : (s instanceof CyberSecurityStudent)))
-                .count();
+        StudentGroup group = StudentGroup.fromLabel(groupType);
+        if (stored != null) return readStored(r -> r.count(group));
+        return groupStats.get(group).getCount();
     }
 
-    public void close() {
+    // For a stored roster this is worked out afresh from storage on every call.
+    public GradeAnalytics getGradeAnalytics() {
+        if (stored == null) return analytics;
+        GradeAnalytics fresh = new GradeAnalytics();
+        forEachStudent(student -> fresh.studentAdded(student, false));
+        Map<StudentGroup, long[]> counts = readStored(r -> storage.countGrades());
+        if (counts != null) fresh.addGradeCounts(counts);
+        return fresh;
+    }
+
+    public List<Student> getStudentsSorted(StudentGroup group, StudentOrder order, boolean descending) {
+        return getStudentsSorted(group, order, descending, 0, Integer.MAX_VALUE);
+    }
+
+    public List<Student> getStudentsSorted(StudentGroup group, StudentOrder order, boolean descending,
+                                           int offset, int limit) {
+        long start = metrics.start(OperationMetrics.Operation.SORT);
+        try {
+            return stored != null
+                    ? adoptAll(readStored(r -> r.sorted(group, order, descending, offset, limit, gradeLoader)))
+                    : groupOrder.get(group).slice(order, descending, offset, limit);
+        } finally {
+            metrics.record(OperationMetrics.Operation.SORT, start);
+        }
+    }
+
+    public List<Student> getTopByAverage(StudentGroup group, int k) {
+        if (stored != null) return getStudentsSorted(group, StudentOrder.AVERAGE, true, 0, k);
+        return groupOrder.get(group).top(k);
+    }
+
+    public List<Student> getBottomByAverage(StudentGroup group, int k) {
+        if (stored != null) return getStudentsSorted(group, StudentOrder.AVERAGE, false, 0, k);
+        return groupOrder.get(group).bottom(k);
+    }
+
+    public List<Student> getStudentsWithAverage(StudentGroup group, double min, double max) {
+        if (stored != null) return adoptAll(readStored(r -> r.averageRange(group, min, max, gradeLoader)));
+        return groupOrder.get(group).averageRange(min, max);
+    }
+
+    public List<Student> getStudentsInIdRange(StudentGroup group, int from, int to) {
+        if (stored != null) return adoptAll(readStored(r -> r.idRange(group, from, to, gradeLoader)));
+        return groupOrder.get(group).idRange(from, to);
+    }
+
+    public List<Student> getStudentsByLastNamePrefix(StudentGroup group, String prefix) {
+        if (stored != null) return adoptAll(readStored(r -> r.lastNamePrefix(group, prefix, gradeLoader)));
+        return groupOrder.get(group).lastNamePrefix(prefix);
+    }
+
+    // Students matching every filter of the query, in ID order.
+    public List<Student> query(StudentQuery query) {
+        long start = metrics.start(OperationMetrics.Operation.QUERY);
         try {
-            if (connection != null) {
-                connection.close();
-                connection = null; 
+            return select(query);
+        } finally {
+            metrics.record(OperationMetrics.Operation.QUERY, start);
+        }
+    }
+
+    private List<Student> select(StudentQuery query) {
+        List<Student> candidates;
+        if (stored != null) {
+            candidates = adoptAll(readStored(r -> r.select(query, gradeLoader)));
+        } else {
+            candidates = storage.isLazy() ? selectStored(query) : null;
+            if (candidates == null) candidates = candidates(query);
+        }
+
+        List<Student> result = new ArrayList<>();
+        for (Student student : candidates) {
+            if (query.matches(student)) result.add(student);
+        }
+        result.sort(Comparator.comparingInt(Student::getId));
+        if (result.size() > query.getLimit()) result = new ArrayList<>(result.subList(0, query.getLimit()));
+        return result;
+    }
+
+    // Picks the index likely to narrow the roster most; matches() does the rest.
+    private List<Student> candidates(StudentQuery query) {
+        if (query.getLastNamePrefix() != null) return queryIndex.lastNamePrefix(query.getLastNamePrefix());
+        if (query.getFirstNamePrefix() != null) return queryIndex.firstNamePrefix(query.getFirstNamePrefix());
+        if (query.hasBirthYearRange()) {
+            return queryIndex.bornBetween(query.getMinBirthYear(), query.getMaxBirthYear());
+        }
+        if (query.hasAverageRange()) {
+            List<Student> result = new ArrayList<>();
+            for (StudentGroup group : StudentGroup.values()) {
+                if (query.getGroup() == null || query.getGroup() == group) {
+                    result.addAll(groupOrder.get(group).averageRange(query.getMinAverage(), query.getMaxAverage()));
+                }
+            }
+            return result;
+        }
+        if (query.getGroup() != null) return groupOrder.get(query.getGroup()).sorted(StudentOrder.ID, false);
+        return students.toList();
+    }
+
+    // With lazy storage the filters go to the engine instead of building the
+    // in-memory indexes. Rows it has not seen yet are still pending, so those
+    // students are added as candidates too. Null when the engine cannot filter.
+    private List<Student> selectStored(StudentQuery query) {
+        int[] ids;
+        List<Student> result = new ArrayList<>();
+        synchronized (storageLock) {
+            if (closed) return null;
+            StorageEvent event = new StorageEvent();
+            event.begin();
+            try {
+                ids = storage.select(query);
+            } catch (IOException e) {
+                commit(event, "select", 0, true);
+                System.out.println("Query error: " + e.getMessage());
+                return null;
+            }
+            commit(event, "select", ids == null ? 0 : ids.length, false);
+            if (ids == null) return null;
+            synchronized (pendingLock) {
+                result.addAll(pendingUpserts.values());
+            }
+        }
+
+        for (int id : ids) {
+            Student student = students.get(id);
+            if (student != null) result.add(student);
+        }
+        // a pending student that was also saved before shows up twice
+        result.sort(Comparator.comparingInt(Student::getId));
+        List<Student> unique = new ArrayList<>(result.size());
+        for (Student student : result) {
+            if (unique.isEmpty() || unique.get(unique.size() - 1) != student) unique.add(student);
+        }
+        return unique;
+    }
+
+    public void close() {
+        stopFlusher();
+        synchronized (storageLock) {
+            if (closed) return;
+            closed = true;
+            boolean saved;
+            synchronized (pendingLock) {
+                saved = pendingUpserts.isEmpty() && pendingDeletes.isEmpty();
+            }
+            if (saved && storage.isPersistent()) {
+                StorageEvent event = new StorageEvent();
+                event.begin();
+                try {
+                    storage.checkpoint(students.toList());
+                    commit(event, "checkpoint", students.size(), false);
+                } catch (IOException e) {
+                    commit(event, "checkpoint", students.size(), true);
+                    System.out.println("Snapshot not written: " + e.getMessage());
+                }
             }
-        } catch (SQLException e) {
-            System.out.println("Error closing connection: " + e.getMessage());
+            storage.close();
+            if (journal != null) journal.close();
         }
     }
 }
\ No newline at end of file
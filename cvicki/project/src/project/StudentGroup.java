@@ -0,0 +1,20 @@
+package project;
+
+enum StudentGroup {
+    TELECOM("Telecom"),
+    CYBER_SECURITY("CyberSecurity");
+
+    private final String label;
+
+    StudentGroup(String label) {
+        this.label = label;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public static StudentGroup fromLabel(String label) {
+        return "Telecom".equals(label) ? TELECOM : CYBER_SECURITY;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,200 @@
+package project;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// JSON API over a StudentDatabase:
+//   GET    /students/{id}
+//   POST   /students              {"group","firstName","lastName","birthYear"}
+//   POST   /students/{id}/grades  {"grades":[5,4]}
+//   DELETE /students/{id}
+//   GET    /stats
+class StudentHttpServer {
+    static {
+        // headers and body go out as separate writes; without TCP_NODELAY every
+        // response waits out the client's delayed ACK (~40 ms)
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    private final StudentDatabase db;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public StudentHttpServer(StudentDatabase db, int port) throws IOException {
+        this.db = db;
+        this.server = HttpServer.create(new InetSocketAddress(port), 1024);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/students", this::handleStudents);
+        server.createContext("/stats", this::handleStats);
+        server.createContext("/metrics", this::handleMetrics);
+    }
+
+    // One virtual thread per request on Java 21+. The build targets 17, so the
+    // factory is looked up reflectively and older runtimes get a cached pool.
+    static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newCachedThreadPool();
+        }
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handleStudents(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            String[] path = exchange.getRequestURI().getPath().split("/");
+            String method = exchange.getRequestMethod();
+            try {
+                // path is ["", "students", id?, "grades"?]
+                if (path.length == 2 && method.equals("POST")) {
+                    createStudent(exchange);
+                } else if (path.length == 3 && method.equals("GET")) {
+                    Student student = db.findStudent(parseId(path[2]));
+                    if (student == null) {
+                        send(exchange, 404, error("student not found"));
+                        return;
+                    }
+                    StringBuilder body = new StringBuilder(160);
+                    Json.appendStudent(body, student);
+                    send(exchange, 200, body.toString());
+                } else if (path.length == 3 && method.equals("DELETE")) {
+                    boolean removed = db.removeStudent(parseId(path[2]));
+                    send(exchange, removed ? 200 : 404, removed ? "{\"removed\":true}" : error("student not found"));
+                } else if (path.length == 4 && path[3].equals("grades") && method.equals("POST")) {
+                    addGrades(exchange, parseId(path[2]));
+                } else {
+                    send(exchange, 404, error("no such endpoint"));
+                }
+            } catch (IllegalArgumentException e) {
+                send(exchange, 400, error(e.getMessage()));
+            } catch (RuntimeException e) {
+                send(exchange, 500, error(String.valueOf(e.getMessage())));
+            }
+        }
+    }
+
+    private void createStudent(HttpExchange exchange) throws IOException {
+        Map<String, Object> body = Json.parseObject(readBody(exchange));
+        Map<String, String> fields = new HashMap<>();
+        fields.put("Group", text(body.get("group")));
+        fields.put("FirstName", text(body.get("firstName")));
+        fields.put("LastName", text(body.get("lastName")));
+        fields.put("BirthYear", text(body.get("birthYear")));
+
+        Student student = StudentImporter.toStudent(fields);
+        db.addStudent(student);
+        send(exchange, 201, "{\"id\":" + student.getId() + "}");
+    }
+
+    private void addGrades(HttpExchange exchange, int id) throws IOException {
+        Map<String, Object> body = Json.parseObject(readBody(exchange));
+        if (!(body.get("grades") instanceof List<?> values) || values.isEmpty()) {
+            throw new IllegalArgumentException("grades must be a non-empty array");
+        }
+        int[] grades = new int[values.size()];
+        for (int i = 0; i < grades.length; i++) {
+            if (!(values.get(i) instanceof Double d) || d != Math.rint(d) || d < 1 || d > 5) {
+                throw new IllegalArgumentException("grades must be whole numbers 1-5");
+            }
+            grades[i] = d.intValue();
+        }
+
+        Student student = db.findStudent(id);
+        if (student == null) {
+            send(exchange, 404, error("student not found"));
+            return;
+        }
+        for (int grade : grades) {
+            student.addGrade(grade);
+        }
+        send(exchange, 200, "{\"id\":" + id + ",\"average\":" + student.getAverageGrade() + "}");
+    }
+
+    private void handleStats(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, error("GET only"));
+                return;
+            }
+            StringBuilder body = new StringBuilder("{");
+            for (StudentGroup group : StudentGroup.values()) {
+                if (body.length() > 1) body.append(',');
+                body.append('"').append(group.getLabel()).append("\":{\"count\":")
+                    .append(db.getGroupCount(group.getLabel()))
+                    .append(",\"average\":").append(db.getGroupAverage(group.getLabel())).append('}');
+            }
+            send(exchange, 200, body.append('}').toString());
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, error("GET only"));
+                return;
+            }
+            StringBuilder body = new StringBuilder(1024);
+            db.getMetrics().appendJson(body);
+            send(exchange, 200, body.toString());
+        }
+    }
+
+    private static int parseId(String value) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("id '" + value + "' is not a number");
+        }
+    }
+
+    private static String text(Object value) {
+        if (value == null) return "";
+        if (value instanceof Double d && d == Math.rint(d)) return String.valueOf(d.longValue());
+        return value.toString().trim();
+    }
+
+    private static String readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static String error(String message) {
+        return "{\"error\":" + Json.quote(message) + "}";
+    }
+
+    private static void send(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,310 @@
+package project;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+class StudentImporter {
+    private static final int CHUNK_SIZE = 10_000;
+    private static final String GROUP_KEY = "Group (1-Telecom / 2-CyberSecurity)";
+    private static final String SEPARATOR = "-----------------------";
+
+    private final StudentDatabase db;
+
+    public StudentImporter(StudentDatabase db) {
+        this.db = db;
+    }
+
+    public record Result(int imported, List<String> errors, long elapsedNanos) {
+        public double recordsPerSecond() {
+            return elapsedNanos == 0 ? 0.0 : (imported + errors.size()) * 1e9 / elapsedNanos;
+        }
+    }
+
+    private record RawRecord(int line, Map<String, String> fields) {}
+
+    private record Parsed(int line, Student student, String error) {}
+
+    // Each chunk's valid students go into the database before the next chunk
+    // is read, so a file that fails part way keeps the chunks before it.
+    public Result importFile(Path file) throws IOException {
+        long start = System.nanoTime();
+        boolean csv = file.getFileName().toString().toLowerCase().endsWith(".csv");
+
+        int imported = 0;
+        List<String> errors = new ArrayList<>();
+        List<RawRecord> chunk = new ArrayList<>(CHUNK_SIZE);
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            RecordReader records = csv ? new CsvReader(reader) : new TemplateReader(reader);
+            RawRecord record;
+            while ((record = records.next()) != null) {
+                chunk.add(record);
+                if (chunk.size() == CHUNK_SIZE) {
+                    imported += importChunk(chunk, errors);
+                    chunk.clear();
+                }
+            }
+            imported += importChunk(chunk, errors);
+        }
+
+        return new Result(imported, errors, System.nanoTime() - start);
+    }
+
+    private int importChunk(List<RawRecord> chunk, List<String> errors) {
+        List<Parsed> parsed = chunk.parallelStream().map(StudentImporter::parse).toList();
+        List<Student> valid = new ArrayList<>(parsed.size());
+        for (Parsed p : parsed) {
+            if (p.student() != null) {
+                valid.add(p.student());
+            } else {
+                errors.add("Line " + p.line() + ": " + p.error());
+            }
+        }
+        if (!valid.isEmpty()) db.importStudents(valid);
+        return valid.size();
+    }
+
+    private static Parsed parse(RawRecord record) {
+        try {
+            return new Parsed(record.line(), toStudent(record.fields()), null);
+        } catch (IllegalArgumentException e) {
+            return new Parsed(record.line(), null, e.getMessage());
+        }
+    }
+
+    static Student toStudent(Map<String, String> fields) {
+        String group = required(fields, "Group");
+        String firstName = required(fields, "FirstName");
+        String lastName = required(fields, "LastName");
+        String year = required(fields, "BirthYear");
+
+        int birthYear;
+        try {
+            birthYear = Integer.parseInt(year);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("BirthYear '" + year + "' is not a number");
+        }
+        if (birthYear < 1900 || birthYear > 2025) {
+            throw new IllegalArgumentException("BirthYear must be between 1900-2025");
+        }
+
+        Student student = switch (group) {
+            case "1", "Telecom" -> new TelecomStudent(0, firstName, lastName, birthYear);
+            case "2", "CyberSecurity" -> new CyberSecurityStudent(0, firstName, lastName, birthYear);
+            default -> throw new IllegalArgumentException("Group must be 1/Telecom or 2/CyberSecurity, got '" + group + "'");
+        };
+
+        String grades = fields.get("Grades");
+        if (grades != null && !grades.isBlank()) {
+            for (String value : grades.trim().split("[;\\s]+")) {
+                int grade;
+                try {
+                    grade = Integer.parseInt(value);
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Grade '" + value + "' is not a number");
+                }
+                if (grade < 1 || grade > 5) {
+                    throw new IllegalArgumentException("Grade " + grade + " must be 1-5");
+                }
+                student.appendGrade(grade);
+            }
+        }
+        return student;
+    }
+
+    private static String required(Map<String, String> fields, String key) {
+        String value = fields.get(key);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException(key + " is missing");
+        }
+        return value;
+    }
+
+    private interface RecordReader {
+        RawRecord next() throws IOException;
+    }
+
+    // group,firstName,lastName,birthYear[,grades] with an optional header row.
+    // A header names the columns, so a file from StudentExporter, which adds id
+    // and average, reads back too. A field in double quotes may hold commas,
+    // line breaks and doubled quotes.
+    private static class CsvReader implements RecordReader {
+        private static final String[] COLUMNS = {"Group", "FirstName", "LastName", "BirthYear", "Grades"};
+
+        private final BufferedReader reader;
+        private String[] columns;
+        private int lineNumber;
+        private int recordLine;
+
+        CsvReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRecord next() throws IOException {
+            List<String> values;
+            while ((values = readRecord()) != null) {
+                if (columns == null) {
+                    columns = header(values);
+                    if (columns != null) continue;
+                    columns = COLUMNS;
+                }
+                Map<String, String> fields = new HashMap<>();
+                for (int i = 0; i < values.size() && i < columns.length; i++) {
+                    if (columns[i] != null) fields.put(columns[i], values.get(i));
+                }
+                return new RawRecord(recordLine, fields);
+            }
+            return null;
+        }
+
+        // The field name for each column, or null when the row is not a header.
+        private static String[] header(List<String> values) {
+            String first = values.get(0).toLowerCase();
+            if (!first.equals("group") && !first.equals("id")) return null;
+            String[] names = new String[values.size()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = switch (values.get(i).toLowerCase()) {
+                    case "group" -> "Group";
+                    case "firstname" -> "FirstName";
+                    case "lastname" -> "LastName";
+                    case "birthyear" -> "BirthYear";
+                    case "grades" -> "Grades";
+                    default -> null;
+                };
+            }
+            return names;
+        }
+
+        // The fields of the next non-blank record; unquoted ones are trimmed.
+        private List<String> readRecord() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                if (line == null) return null;
+                lineNumber++;
+            } while (line.isBlank());
+            recordLine = lineNumber;
+
+            List<String> values = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            int quotedEnd = -1;
+            int i = 0;
+            while (true) {
+                if (i == line.length()) {
+                    if (!quoted) break;
+                    // a quoted field goes on past the line break
+                    String more = reader.readLine();
+                    if (more == null) {
+                        quotedEnd = field.length();
+                        break;
+                    }
+                    lineNumber++;
+                    field.append('\n');
+                    line = more;
+                    i = 0;
+                    continue;
+                }
+                char c = line.charAt(i++);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i < line.length() && line.charAt(i) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                        quotedEnd = field.length();
+                    }
+                } else if (c == '"' && quotedEnd < 0 && field.toString().isBlank()) {
+                    quoted = true;
+                    field.setLength(0);
+                } else if (c == ',') {
+                    values.add(quotedEnd >= 0 ? field.substring(0, quotedEnd) : field.toString().trim());
+                    field.setLength(0);
+                    quotedEnd = -1;
+                } else {
+                    field.append(c);
+                }
+            }
+            values.add(quotedEnd >= 0 ? field.substring(0, quotedEnd) : field.toString().trim());
+            return values;
+        }
+    }
+
+    // Repeated blocks of the new_student.txt fields, separated by blank lines or by
+    // the next Group line. The template's fill-in example section is skipped.
+    private static class TemplateReader implements RecordReader {
+        private final BufferedReader reader;
+        private String pushedBack;
+        private int lineNumber;
+        private boolean inExample;
+
+        TemplateReader(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public RawRecord next() throws IOException {
+            while (true) {
+                Map<String, String> fields = new HashMap<>();
+                int recordLine = 0;
+                boolean endOfFile = true;
+                String line;
+
+                while ((line = readLine()) != null) {
+                    String trimmed = line.trim();
+                    if (trimmed.equals("Fill-in example:")) {
+                        inExample = true;
+                        continue;
+                    }
+                    if (trimmed.equals(SEPARATOR)) {
+                        inExample = false;
+                        fields.clear();
+                        continue;
+                    }
+                    if (trimmed.isEmpty() && !fields.isEmpty()) {
+                        endOfFile = false;
+                        break;
+                    }
+                    if (inExample || !trimmed.contains(":")) continue;
+
+                    String[] parts = trimmed.split(":", 2);
+                    String key = parts[0].trim();
+                    if (key.equals(GROUP_KEY)) key = "Group";
+                    if (key.equals("Group") && fields.containsKey("Group")) {
+                        pushedBack = line;
+                        endOfFile = false;
+                        break;
+                    }
+                    if (fields.isEmpty()) recordLine = lineNumber;
+                    fields.put(key, parts[1].trim());
+                }
+
+                // An untouched blank form is not an error, just nothing to import.
+                boolean blank = fields.values().stream().allMatch(String::isEmpty);
+                if (!blank) return new RawRecord(recordLine, fields);
+                if (endOfFile) return null;
+            }
+        }
+
+        private String readLine() throws IOException {
+            if (pushedBack != null) {
+                String line = pushedBack;
+                pushedBack = null;
+                return line;
+            }
+            String line = reader.readLine();
+            if (line != null) lineNumber++;
+            return line;
+        }
+    }
+}
\ No newline at end of file
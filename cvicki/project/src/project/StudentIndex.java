@@ -0,0 +1,121 @@
+package project;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+
+// Students are spread over lock stripes by ID, so lookups on different stripes
+// never contend and a writer only blocks readers of its own stripe.
+class StudentIndex {
+    private static final int STRIPE_BITS = 5;
+    private static final int STRIPES = 1 << STRIPE_BITS;
+
+    private static final class Stripe {
+        final StampedLock lock = new StampedLock();
+        final List<Student> students = new ArrayList<>();
+        final IntIntMap positions = new IntIntMap();
+    }
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    public StudentIndex() {
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+
+    private Stripe stripe(int id) {
+        return stripes[(id * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                size += stripe.students.size();
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return size;
+    }
+
+    public boolean add(Student student) {
+        Stripe stripe = stripe(student.getId());
+        long stamp = stripe.lock.writeLock();
+        try {
+            if (stripe.positions.get(student.getId(), -1) >= 0) return false;
+            stripe.positions.put(student.getId(), stripe.students.size());
+            stripe.students.add(student);
+            return true;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    public Student get(int id) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.readLock();
+        try {
+            int pos = stripe.positions.get(id, -1);
+            return pos < 0 ? null : stripe.students.get(pos);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+
+    public Student remove(int id) {
+        Stripe stripe = stripe(id);
+        long stamp = stripe.lock.writeLock();
+        try {
+            int pos = stripe.positions.remove(id, -1);
+            if (pos < 0) return null;
+
+            // Swap the last student into the freed slot so removal never shifts the list.
+            List<Student> students = stripe.students;
+            Student removed = students.get(pos);
+            Student last = students.remove(students.size() - 1);
+            if (last != removed) {
+                students.set(pos, last);
+                stripe.positions.put(last.getId(), pos);
+            }
+            return removed;
+        } finally {
+            stripe.lock.unlockWrite(stamp);
+        }
+    }
+
+    // Each stripe is copied under its read lock and visited outside it, so the
+    // action may call back into the database without holding any index lock.
+    public void forEach(Consumer<Student> action) {
+        for (Stripe stripe : stripes) {
+            for (Student student : copyOf(stripe)) {
+                action.accept(student);
+            }
+        }
+    }
+
+    public List<Student> toList() {
+        List<Student> all = new ArrayList<>(size());
+        for (Stripe stripe : stripes) {
+            long stamp = stripe.lock.readLock();
+            try {
+                all.addAll(stripe.students);
+            } finally {
+                stripe.lock.unlockRead(stamp);
+            }
+        }
+        return all;
+    }
+
+    private static Student[] copyOf(Stripe stripe) {
+        long stamp = stripe.lock.readLock();
+        try {
+            return stripe.students.toArray(new Student[0]);
+        } finally {
+            stripe.lock.unlockRead(stamp);
+        }
+    }
+}
\ No newline at end of file
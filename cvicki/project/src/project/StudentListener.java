@@ -0,0 +1,5 @@
+package project;
+
+interface StudentListener {
+    void gradeAdded(Student student, int grade);
+}
\ No newline at end of file
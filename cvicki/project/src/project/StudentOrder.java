@@ -0,0 +1,7 @@
+package project;
+
+enum StudentOrder {
+    LAST_NAME,
+    ID,
+    AVERAGE
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package project;
+
+import java.util.Locale;
+
+// Conjunction of optional filters, built fluently:
+//   new StudentQuery().group(TELECOM).lastNamePrefix("nov").bornBetween(1995, 2000).limit(50)
+// Name prefixes ignore case. Results come back in ID order.
+class StudentQuery {
+    private StudentGroup group;
+    private String firstNamePrefix;
+    private String lastNamePrefix;
+    private int minBirthYear = Integer.MIN_VALUE;
+    private int maxBirthYear = Integer.MAX_VALUE;
+    private double minAverage = Double.NEGATIVE_INFINITY;
+    private double maxAverage = Double.POSITIVE_INFINITY;
+    private int limit = Integer.MAX_VALUE;
+
+    public StudentQuery group(StudentGroup group) {
+        this.group = group;
+        return this;
+    }
+
+    public StudentQuery firstNamePrefix(String prefix) {
+        this.firstNamePrefix = normalize(prefix);
+        return this;
+    }
+
+    public StudentQuery lastNamePrefix(String prefix) {
+        this.lastNamePrefix = normalize(prefix);
+        return this;
+    }
+
+    public StudentQuery bornBetween(int from, int to) {
+        this.minBirthYear = from;
+        this.maxBirthYear = to;
+        return this;
+    }
+
+    public StudentQuery averageBetween(double min, double max) {
+        this.minAverage = min;
+        this.maxAverage = max;
+        return this;
+    }
+
+    public StudentQuery averageAtLeast(double min) {
+        return averageBetween(min, Double.POSITIVE_INFINITY);
+    }
+
+    public StudentQuery limit(int limit) {
+        if (limit < 0) throw new IllegalArgumentException("limit must not be negative");
+        this.limit = limit;
+        return this;
+    }
+
+    StudentGroup getGroup() { return group; }
+    String getFirstNamePrefix() { return firstNamePrefix; }
+    String getLastNamePrefix() { return lastNamePrefix; }
+    int getMinBirthYear() { return minBirthYear; }
+    int getMaxBirthYear() { return maxBirthYear; }
+    double getMinAverage() { return minAverage; }
+    double getMaxAverage() { return maxAverage; }
+    int getLimit() { return limit; }
+
+    boolean hasBirthYearRange() {
+        return minBirthYear != Integer.MIN_VALUE || maxBirthYear != Integer.MAX_VALUE;
+    }
+
+    boolean hasAverageRange() {
+        return minAverage != Double.NEGATIVE_INFINITY || maxAverage != Double.POSITIVE_INFINITY;
+    }
+
+    boolean matches(Student s) {
+        if (group != null && s.getGroup() != group) return false;
+        if (firstNamePrefix != null && !normalize(s.getFirstName()).startsWith(firstNamePrefix)) return false;
+        if (lastNamePrefix != null && !normalize(s.getLastName()).startsWith(lastNamePrefix)) return false;
+        int year = s.getBirthYear();
+        if (year < minBirthYear || year > maxBirthYear) return false;
+        double average = s.getAverageGrade();
+        return average >= minAverage && average <= maxAverage;
+    }
+
+    static String normalize(String name) {
+        return name == null ? "" : name.toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,169 @@
+package project;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32C;
+
+// Binary change records: [int length][int CRC32C of body][body: byte type, payload], big-endian.
+//   UPSERT: id, group, birthYear, firstName, lastName, gradeCount, gradeSum,
+//           firstNewGrade, newGrades (int count + one byte each); names are int length + UTF-8
+//   DELETE: id
+// Records carry only the grades added since the previous record for the student.
+// Version 1 logs have the same records without the checksum.
+final class StudentRecordCodec {
+    static final byte UPSERT = 1;
+    static final byte DELETE = 2;
+    private static final byte TELECOM = 1;
+    private static final byte CYBER_SECURITY = 2;
+    private static final int HEADER = 4 + 4;
+    // the shortest body, a DELETE
+    static final int MIN_LENGTH = 1 + 4;
+
+    interface Visitor {
+        // The row's student is null; everything else is as it was written.
+        void upsert(StudentRow row);
+
+        void delete(int id);
+    }
+
+    // Thrown by decode at a record whose length or checksum is wrong, with the
+    // buffer's position left at the record.
+    static final class BadRecordException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        BadRecordException(String message) {
+            super(message);
+        }
+    }
+
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer buffer;
+
+    StudentRecordCodec(int initialCapacity) {
+        buffer = ByteBuffer.allocate(initialCapacity);
+    }
+
+    void clear() {
+        buffer.clear();
+    }
+
+    // The encoded records, ready to be written out.
+    ByteBuffer encoded() {
+        return buffer.duplicate().flip();
+    }
+
+    void upsert(StudentRow row) {
+        byte[] first = row.firstName().getBytes(StandardCharsets.UTF_8);
+        byte[] last = row.lastName().getBytes(StandardCharsets.UTF_8);
+        byte[] grades = row.newGrades();
+        int length = 1 + 4 + 1 + 4 + (4 + first.length) + (4 + last.length) + 4 + 4 + 4 + (4 + grades.length);
+        ensure(HEADER + length);
+        int start = buffer.position();
+        buffer.putInt(length).putInt(0).put(UPSERT)
+            .putInt(row.id())
+            .put(row.group() == StudentGroup.TELECOM ? TELECOM : CYBER_SECURITY)
+            .putInt(row.birthYear())
+            .putInt(first.length).put(first)
+            .putInt(last.length).put(last)
+            .putInt(row.gradeCount())
+            .putInt(row.gradeSum())
+            .putInt(row.firstNewGrade())
+            .putInt(grades.length).put(grades);
+        sign(start);
+    }
+
+    void delete(int id) {
+        ensure(HEADER + MIN_LENGTH);
+        int start = buffer.position();
+        buffer.putInt(MIN_LENGTH).putInt(0).put(DELETE).putInt(id);
+        sign(start);
+    }
+
+    private void sign(int start) {
+        crc.reset();
+        crc.update(buffer.slice(start + HEADER, buffer.position() - start - HEADER));
+        buffer.putInt(start + 4, (int) crc.getValue());
+    }
+
+    private void ensure(int bytes) {
+        if (buffer.remaining() < bytes) {
+            ByteBuffer bigger = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + bytes));
+            bigger.put(buffer.flip());
+            buffer = bigger;
+        }
+    }
+
+    // Decodes whole records from the buffer's position and stops before a record
+    // that is cut off, leaving the position there. Returns the number decoded.
+    // Records of a version 1 log are read with checksummed false.
+    static int decode(ByteBuffer in, Visitor visitor, boolean checksummed) {
+        CRC32C crc = new CRC32C();
+        int header = checksummed ? HEADER : 4;
+        int decoded = 0;
+        while (in.remaining() >= header) {
+            int start = in.position();
+            int length = in.getInt(start);
+            if (length < 1) {
+                throw new BadRecordException("Corrupt record length " + length + " at offset " + start);
+            }
+            if (in.remaining() < header + length) break;
+
+            ByteBuffer record = in.slice(start + header, length);
+            if (checksummed) {
+                crc.reset();
+                crc.update(record.duplicate());
+                if ((int) crc.getValue() != in.getInt(start + 4)) {
+                    throw new BadRecordException("Checksum mismatch in the record at offset " + start);
+                }
+            }
+            in.position(start + header + length);
+            try {
+                byte type = record.get();
+                switch (type) {
+                    case UPSERT -> visitor.upsert(readUpsert(record));
+                    case DELETE -> visitor.delete(record.getInt());
+                    default -> throw new IllegalArgumentException("Unknown record type " + type + " at offset " + start);
+                }
+            } catch (BufferUnderflowException | NegativeArraySizeException e) {
+                throw new IllegalArgumentException("Corrupt record at offset " + start, e);
+            }
+            decoded++;
+        }
+        return decoded;
+    }
+
+    // Whether an intact record starts at the offset: one whose length fits in
+    // the buffer, whose checksum matches and whose type is known.
+    static boolean intactAt(ByteBuffer in, int offset, CRC32C crc) {
+        if (in.limit() - offset < HEADER + MIN_LENGTH) return false;
+        int length = in.getInt(offset);
+        if (length < MIN_LENGTH || length > in.limit() - offset - HEADER) return false;
+        byte type = in.get(offset + HEADER);
+        if (type != UPSERT && type != DELETE) return false;
+        crc.reset();
+        crc.update(in.slice(offset + HEADER, length));
+        return (int) crc.getValue() == in.getInt(offset + 4);
+    }
+
+    private static StudentRow readUpsert(ByteBuffer in) {
+        int id = in.getInt();
+        StudentGroup group = in.get() == TELECOM ? StudentGroup.TELECOM : StudentGroup.CYBER_SECURITY;
+        int birthYear = in.getInt();
+        String firstName = readString(in);
+        String lastName = readString(in);
+        int gradeCount = in.getInt();
+        int gradeSum = in.getInt();
+        int firstNewGrade = in.getInt();
+        byte[] grades = new byte[in.getInt()];
+        in.get(grades);
+        return new StudentRow(null, id, group, firstName, lastName, birthYear,
+            gradeCount, gradeSum, firstNewGrade, grades);
+    }
+
+    private static String readString(ByteBuffer in) {
+        byte[] bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package project;
+
+import java.util.Arrays;
+
+record StudentRow(Student student, int id, StudentGroup group, String firstName, String lastName,
+                  int birthYear, int gradeCount, int gradeSum, int firstNewGrade, byte[] newGrades) {
+
+    static StudentRow capture(Student student) {
+        synchronized (student) {
+            int from = student.savedGradeCount;
+            int count = student.getGradeCount();
+            byte[] newGrades = from < count
+                    ? Arrays.copyOfRange(student.grades, from, count)
+                    : new byte[0];
+            student.savedGradeCount = count;
+            return new StudentRow(student, student.id, student.getGroup(), student.firstName, student.lastName,
+                    student.birthYear, count, student.getGradeSum(), from, newGrades);
+        }
+    }
+
+    double averageGrade() {
+        return gradeCount == 0 ? 0.0 : (double) gradeSum / gradeCount;
+    }
+}
\ No newline at end of file
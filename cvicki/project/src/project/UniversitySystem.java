@@ -2,20 +2,60 @@ package project;
 
 import java.util.*;
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public class UniversitySystem {
+    private static final long FLUSH_INTERVAL_MILLIS = 5000;
+    private static final int FLUSH_BATCH_SIZE = 500;
+    private static final int MAX_IMPORT_ERRORS_SHOWN = 20;
+    private static final int DEFAULT_HTTP_PORT = 8080;
+    private static final int PAGE_SIZE = 25;
+
     private static StudentDatabase db;
+    private static Path metricsFile;
     private static final Scanner scanner = new Scanner(System.in); 
 
     public static void main(String[] args) {
+        List<String> options = Arrays.asList(args);
+        boolean lazy = options.contains("--lazy");
+        int storage = options.indexOf("--storage");
+        if (storage >= 0 && storage + 1 < options.size()) {
+            System.setProperty(StorageEngine.STORAGE_PROPERTY, options.get(storage + 1));
+        }
+        int metrics = options.indexOf("--metrics");
+        metricsFile = metrics >= 0 && metrics + 1 < options.size() ? Path.of(options.get(metrics + 1)) : null;
+        int batch = options.indexOf("--batch");
+        if (batch >= 0) {
+            runBatch(options, batch, lazy);
+            return;
+        }
+        int serve = options.indexOf("--serve");
+        if (serve >= 0) {
+            runServer(options, serve, lazy);
+            return;
+        }
+        int recover = options.indexOf("--recover");
+        if (recover >= 0) {
+            runRecovery(options, recover);
+            return;
+        }
+
         String dbName = selectDatabase();
-        db = new StudentDatabase(dbName);  
+        db = new StudentDatabase(dbName, lazy);
+        db.startFlusher(FLUSH_INTERVAL_MILLIS, FLUSH_BATCH_SIZE);
         
         Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            db.stopFlusher();
             db.saveData();
             db.close();
-            System.out.println("Data saved to " + db.getDbName());
-            System.out.println("You can open your DB by using this website: https://inloop.github.io/sqlite-viewer/");
+            dumpMetrics(db);
+            System.out.println("Data saved to " + db.getStorageDescription());
+            if (db.getStorageDescription().startsWith("SQLite")) {
+                System.out.println("You can open your DB by using this website: https://inloop.github.io/sqlite-viewer/");
+            }
         }));
                 
         while (true) {
@@ -35,6 +75,10 @@ public class UniversitySystem {
                     case 8 -> printGroupCounts();
                     case 9 -> saveToFile();
                     case 10 -> loadFromFile();
+                    case 11 -> bulkImport();
+                    case 12 -> exportRoster();
+                    case 13 -> printMetrics();
+                    case 14 -> printGradeReport();
                     case 0 -> System.exit(0);
                     default -> System.out.println("Invalid choice");
                 }
@@ -45,6 +89,108 @@ public class UniversitySystem {
         }
     }
 
+    // --batch <database.db> [commands.txt | -]: runs commands without prompts, reading stdin by default
+    private static void runBatch(List<String> options, int at, boolean lazy) {
+        if (at + 1 >= options.size()) {
+            System.err.println("Usage: --batch <database.db> [commands.txt | -]");
+            System.exit(2);
+        }
+        String dbName = options.get(at + 1);
+        String source = at + 2 < options.size() && !options.get(at + 2).startsWith("--") ? options.get(at + 2) : "-";
+
+        // stdout carries only the results; the database reports on stderr
+        PrintStream results = System.out;
+        System.setOut(System.err);
+        StudentDatabase database = new StudentDatabase(dbName, lazy);
+        int failures;
+        try (BufferedReader in = source.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in))
+                : Files.newBufferedReader(Path.of(source))) {
+            failures = new BatchRunner(database, new OutputStreamWriter(results)).run(in);
+        } catch (IOException e) {
+            System.err.println("Batch failed: " + e.getMessage());
+            failures = 1;
+        } finally {
+            database.saveData();
+            database.close();
+            dumpMetrics(database);
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // --serve <database.db> [port]: serves the JSON API until the process is stopped
+    private static void runServer(List<String> options, int at, boolean lazy) {
+        if (at + 1 >= options.size()) {
+            System.err.println("Usage: --serve <database.db> [port]");
+            System.exit(2);
+        }
+        String dbName = options.get(at + 1);
+        int port = at + 2 < options.size() && !options.get(at + 2).startsWith("--")
+                ? Integer.parseInt(options.get(at + 2))
+                : DEFAULT_HTTP_PORT;
+
+        StudentDatabase database = new StudentDatabase(dbName, lazy);
+        database.startFlusher(FLUSH_INTERVAL_MILLIS, FLUSH_BATCH_SIZE);
+        try {
+            StudentHttpServer server = new StudentHttpServer(database, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                database.stopFlusher();
+                database.saveData();
+                database.close();
+                dumpMetrics(database);
+            }));
+            server.start();
+            System.out.println("Serving " + dbName + " on http://localhost:" + server.getPort() + "/");
+        } catch (IOException e) {
+            System.err.println("Could not start HTTP server: " + e.getMessage());
+            database.close();
+            System.exit(1);
+        }
+    }
+
+    // --recover <database.db> <time> <out.db>: rebuilds the roster as it was at the
+    // time (yyyy-MM-ddTHH:mm[:ss] local, or epoch millis) from the database's journal
+    private static void runRecovery(List<String> options, int at) {
+        if (at + 3 >= options.size()) {
+            System.err.println("Usage: --recover <database.db> <time> <out.db>");
+            System.exit(2);
+        }
+        Path journal = MutationLog.pathFor(options.get(at + 1));
+        String outName = options.get(at + 3);
+        long until;
+        try {
+            String time = options.get(at + 2);
+            until = time.chars().allMatch(Character::isDigit)
+                    ? Long.parseLong(time)
+                    : LocalDateTime.parse(time).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        } catch (RuntimeException e) {
+            System.err.println("Invalid time: " + options.get(at + 2));
+            System.exit(2);
+            return;
+        }
+        if (!Files.exists(journal)) {
+            System.err.println("No journal at " + journal);
+            System.exit(1);
+        }
+        if (Files.exists(Path.of(outName))) {
+            System.err.println(outName + " already exists; recovery writes a new database");
+            System.exit(1);
+        }
+
+        StudentDatabase database = new StudentDatabase(outName, false);
+        try {
+            database.rebuildFrom(journal, until);
+        } catch (IOException e) {
+            System.err.println("Recovery failed: " + e.getMessage());
+            database.close();
+            System.exit(1);
+        }
+        database.saveData();
+        database.close();
+        System.out.println("Recovered the roster as of " + options.get(at + 2) + " into " + database.getStorageDescription());
+    }
+
     private static void printMenu() {
         System.out.println("\nUniversity System Menu:");
         System.out.println("1. Add new student");
@@ -57,6 +203,10 @@ public class UniversitySystem {
         System.out.println("8. Print group counts");
         System.out.println("9. Save student to file");
         System.out.println("10. Load student from file");
+        System.out.println("11. Bulk import students (CSV or multi-record file)");
+        System.out.println("12. Export roster (CSV / NDJSON)");
+        System.out.println("13. Show operation metrics");
+        System.out.println("14. Grade distribution report");
         System.out.println("0. Exit");
         System.out.print("Enter your choice: ");
     }
@@ -258,7 +408,7 @@ public class UniversitySystem {
     	                    s.getBirthYear(), s.getAverageGrade(),
     	                    (s instanceof TelecomStudent) ? "Telecom" : "CyberSecurity");
 
-    	            System.out.println("Grades: " + s.grades.toString());
+    	            System.out.println("Grades: " + Arrays.toString(s.getGrades()));
     	        } else {
     	            System.out.println("Student not found.");
     	        }
@@ -296,34 +446,38 @@ public class UniversitySystem {
         
         int sortOrder = getValidChoice(1, 2);
         
-        List<Student> students = db.getAllStudents();
-
-        Comparator<Student> comparator = switch (filterChoice) {
-            case 1 -> Comparator.comparing(Student::getLastName);
-            case 2 -> Comparator.comparing(Student::getId);
-            case 3 -> Comparator.comparing(Student::getAverageGrade);
+        StudentOrder order = switch (filterChoice) {
+            case 1 -> StudentOrder.LAST_NAME;
+            case 2 -> StudentOrder.ID;
+            case 3 -> StudentOrder.AVERAGE;
             default -> throw new IllegalStateException("Invalid filter choice");
         };
 
-        if (sortOrder == 2) {
-            comparator = comparator.reversed();
+        RosterRenderer renderer = new RosterRenderer(new OutputStreamWriter(System.out));
+        for (StudentGroup group : StudentGroup.values()) {
+            renderer.line("\n" + group.getLabel() + " Students:");
+            int page = renderer.page(db, group, order, sortOrder == 2, 1, PAGE_SIZE);
+            while (db.getGroupCount(group.getLabel()) > PAGE_SIZE) {
+                System.out.print("n = next, p = previous, page number, Enter = done: ");
+                String command = scanner.nextLine().trim();
+                int target;
+                if (command.isEmpty()) {
+                    break;
+                } else if (command.equalsIgnoreCase("n")) {
+                    target = page + 1;
+                } else if (command.equalsIgnoreCase("p")) {
+                    target = page - 1;
+                } else {
+                    try {
+                        target = Integer.parseInt(command);
+                    } catch (NumberFormatException e) {
+                        System.out.println("Unknown command");
+                        continue;
+                    }
+                }
+                page = renderer.page(db, group, order, sortOrder == 2, target, PAGE_SIZE);
+            }
         }
-        
-        students.sort(comparator);
-
-        System.out.println("\nTelecom Students:");
-        students.stream()
-            .filter(s -> s instanceof TelecomStudent)
-            .forEach(s -> System.out.printf("%06d: %s %s (%d) - %.2f\n",
-                s.getId(), s.getFirstName(), s.getLastName(),
-                s.getBirthYear(), s.getAverageGrade()));
-
-        System.out.println("\nCyberSecurity Students:");
-        students.stream()
-            .filter(s -> s instanceof CyberSecurityStudent)
-            .forEach(s -> System.out.printf("%06d: %s %s (%d) - %.2f\n",
-                s.getId(), s.getFirstName(), s.getLastName(),
-                s.getBirthYear(), s.getAverageGrade()));
     }
 
     private static int getValidChoice(int min, int max) {
@@ -342,6 +496,48 @@ public class UniversitySystem {
         }
     }
     
+    private static void printGradeReport() {
+        GradeAnalytics analytics = db.getGradeAnalytics();
+        System.out.print(analytics.report());
+        System.out.print("\nCount students below average (e.g. 2.5, Enter to skip): ");
+        String input = scanner.nextLine().trim().replace(',', '.');
+        if (input.isEmpty()) return;
+        double average;
+        try {
+            average = Double.parseDouble(input);
+        } catch (NumberFormatException e) {
+            System.out.println("Not a number");
+            return;
+        }
+        for (StudentGroup group : StudentGroup.values()) {
+            System.out.println(group.getLabel() + ": " + analytics.get(group).countAverageBelow(average));
+        }
+        System.out.println("Whole school: " + analytics.getSchool().countAverageBelow(average));
+    }
+
+    private static void printMetrics() {
+        System.out.print(db.getMetrics().report());
+        System.out.print("Save to file (Enter to skip): ");
+        String file = scanner.nextLine().trim();
+        if (file.isEmpty()) return;
+        try {
+            db.getMetrics().dump(Path.of(file));
+            System.out.println("Metrics written to " + file);
+        } catch (IOException e) {
+            System.out.println("Could not write metrics: " + e.getMessage());
+        }
+    }
+
+    // --metrics <file>: the report is written there when the program exits
+    private static void dumpMetrics(StudentDatabase database) {
+        if (metricsFile == null) return;
+        try {
+            database.getMetrics().dump(metricsFile);
+        } catch (IOException e) {
+            System.err.println("Could not write metrics to " + metricsFile + ": " + e.getMessage());
+        }
+    }
+
     private static void printGroupAverages() {
         System.out.printf("Telecom average: %.2f\n", db.getGroupAverage("Telecom"));
         System.out.printf("CyberSecurity average: %.2f\n", db.getGroupAverage("CyberSecurity"));
@@ -371,7 +567,7 @@ public class UniversitySystem {
             writer.println("FirstName: " + student.getFirstName());
             writer.println("LastName: " + student.getLastName());
             writer.println("BirthYear: " + student.getBirthYear());
-            writer.println("Grades: " + student.grades.toString());
+            writer.println("Grades: " + Arrays.toString(student.getGrades()));
             writer.println("Average: " + student.getAverageGrade());
             System.out.println("Student saved to " + filename + ".txt");
         } catch (IOException e) {
@@ -423,6 +619,56 @@ public class UniversitySystem {
         }
     }
 
+    private static void bulkImport() {
+        System.out.print("File to import (.csv: group,firstName,lastName,birthYear[,grades]; otherwise template records): ");
+        String filename = scanner.nextLine().trim();
+
+        try {
+            StudentImporter.Result result = new StudentImporter(db).importFile(Path.of(filename));
+            System.out.printf("Imported %d students, %d errors in %.1f ms (%.0f records/s)\n",
+                    result.imported(), result.errors().size(),
+                    result.elapsedNanos() / 1e6, result.recordsPerSecond());
+
+            List<String> errors = result.errors();
+            for (int i = 0; i < Math.min(errors.size(), MAX_IMPORT_ERRORS_SHOWN); i++) {
+                System.out.println("  " + errors.get(i));
+            }
+            if (errors.size() > MAX_IMPORT_ERRORS_SHOWN) {
+                System.out.println("  ... and " + (errors.size() - MAX_IMPORT_ERRORS_SHOWN) + " more");
+            }
+        } catch (IOException e) {
+            System.out.println("Import failed: " + e.getMessage());
+        }
+    }
+
+    private static void exportRoster() {
+        System.out.println("Format: 1. CSV  2. NDJSON");
+        System.out.print("Enter your choice: ");
+        StudentExporter.Format format = getValidChoice(1, 2) == 1
+                ? StudentExporter.Format.CSV
+                : StudentExporter.Format.NDJSON;
+
+        System.out.println("Students: 1. All  2. Telecom  3. CyberSecurity");
+        System.out.print("Enter your choice: ");
+        int groupChoice = getValidChoice(1, 3);
+
+        System.out.print("Include grades? (y/n): ");
+        boolean includeGrades = scanner.nextLine().trim().equalsIgnoreCase("y");
+
+        System.out.print("Filename: ");
+        String filename = scanner.nextLine().trim();
+
+        try {
+            StudentExporter.Result result = new StudentExporter(db).export(Path.of(filename), format, includeGrades,
+                    s -> groupChoice == 1 || s.getGroup() == (groupChoice == 2 ? StudentGroup.TELECOM : StudentGroup.CYBER_SECURITY));
+            System.out.printf("Exported %d students (%.1f MB) to %s in %.1f ms (%.0f rows/s)\n",
+                    result.rows(), result.bytes() / 1e6, filename,
+                    result.elapsedNanos() / 1e6, result.rowsPerSecond());
+        } catch (IOException e) {
+            System.out.println("Export failed: " + e.getMessage());
+        }
+    }
+
     private static void createTemplateFile() throws IOException {
         try (PrintWriter writer = new PrintWriter("new_student.txt")) {
             writer.println("ID will be generated automatically.");
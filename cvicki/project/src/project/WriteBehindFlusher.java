@@ -0,0 +1,66 @@
+package project;
+
+class WriteBehindFlusher implements Runnable {
+    private final StudentDatabase db;
+    private final long intervalMillis;
+    private final int batchSize;
+    private final Thread thread;
+    private volatile boolean running = true;
+    private boolean flushRequested;
+
+    public WriteBehindFlusher(StudentDatabase db, long intervalMillis, int batchSize) {
+        this.db = db;
+        this.intervalMillis = intervalMillis;
+        this.batchSize = batchSize;
+        this.thread = new Thread(this, "student-db-flusher");
+        this.thread.setDaemon(true);
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    public synchronized void requestFlush() {
+        flushRequested = true;
+        notifyAll();
+    }
+
+    public void stop() {
+        running = false;
+        synchronized (this) {
+            notifyAll();
+        }
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        while (running) {
+            synchronized (this) {
+                if (!flushRequested) {
+                    try {
+                        wait(intervalMillis);
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                flushRequested = false;
+            }
+            if (!running) return;
+
+            try {
+                db.saveData();
+            } catch (RuntimeException e) {
+                System.out.println("Background save error: " + e.getMessage());
+            }
+        }
+    }
+}
\ No newline at end of file